@@ -0,0 +1,115 @@
+package com.example.jpashop.benchmark;
+
+import com.example.jpashop.modules.member.Address;
+import com.example.jpashop.modules.order.OrderFlatDto;
+import com.example.jpashop.modules.order.OrderItemQueyDto;
+import com.example.jpashop.modules.order.OrderQueryDto;
+import com.example.jpashop.modules.order.OrderStatus;
+import com.example.jpashop.support.FlatAssembler;
+import com.example.jpashop.support.LongObjectMap;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 주문 -> 주문상품 조립 비용 (DB 없이 메모리에서만)
+ * - groupingBy     : Collectors.groupingBy로 HashMap<Long, List> 만든 뒤 잇기
+ * - longObjectMap  : LongObjectMap<List> + 키마다 ArrayList (FlatAssembler 이전 방식)
+ * - attach         : FlatAssembler.attach (루트/자식 따로 조회)
+ * - assemble       : FlatAssembler.assemble (조인한 플랫 row)
+ * - forEachSorted  : FlatAssembler.forEachSorted (정렬된 플랫 row 스트리밍)
+ * - op 하나가 자식 row ROWS개이므로 -prof gc의 gc.alloc.rate.norm이 row당 할당 바이트다.
+ *   모두 루트 DTO를 만드는 비용을 포함한다. 자식 DTO는 groupingBy/longObjectMap/attach는 조회된 것을 쓰고
+ *   assemble/forEachSorted는 row마다 만든다. (같은 그룹끼리 비교한다)
+ *
+ * ./gradlew jmh -PjmhArgs='FlatAssemblerBenchmark'
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(FlatAssemblerBenchmark.ROWS)
+public class FlatAssemblerBenchmark {
+
+    static final int ROWS = 10_000;
+
+    private static final FlatAssembler<OrderQueryDto, OrderItemQueyDto> ASSEMBLER =
+            new FlatAssembler<>(OrderQueryDto::getOrderId, OrderQueryDto::setOrderItems);
+
+    @Param({"1", "4", "16"})
+    int itemsPerOrder;
+
+    private List<OrderFlatDto> flats;
+    private List<OrderItemQueyDto> orderItems;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Address address = new Address("서울", "강가", "123-123");
+        LocalDateTime orderDate = LocalDateTime.of(2025, 1, 1, 0, 0);
+        flats = new ArrayList<>(ROWS);
+        orderItems = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Long orderId = (long) (i / itemsPerOrder + 1);
+            OrderFlatDto flat = new OrderFlatDto(orderId, "member-" + orderId, orderDate, OrderStatus.ORDER, address,
+                    "item-" + i % 100, 10000, 2);
+            flats.add(flat);
+            orderItems.add(flat.toOrderItemQueryDto());
+        }
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> groupingBy() {
+        List<OrderQueryDto> orders = orders();
+        Map<Long, List<OrderItemQueyDto>> orderItemMap = orderItems.stream()
+                .collect(Collectors.groupingBy(OrderItemQueyDto::getOrderId));
+        orders.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+        return orders;
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> longObjectMap() {
+        List<OrderQueryDto> orders = orders();
+        LongObjectMap<List<OrderItemQueyDto>> orderItemMap = new LongObjectMap<>(orders.size());
+        for (OrderItemQueyDto orderItem : orderItems) {
+            orderItemMap.computeIfAbsent(orderItem.getOrderId(), k -> new ArrayList<>()).add(orderItem);
+        }
+        orders.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+        return orders;
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> attach() {
+        List<OrderQueryDto> orders = orders();
+        ASSEMBLER.attach(orders, orderItems, OrderItemQueyDto::getOrderId);
+        return orders;
+    }
+
+    @Benchmark
+    public List<OrderQueryDto> assemble() {
+        return ASSEMBLER.assemble(flats, OrderFlatDto::getOrderId,
+                OrderFlatDto::toOrderQueryDto, OrderFlatDto::toOrderItemQueryDto);
+    }
+
+    @Benchmark
+    public void forEachSorted(Blackhole blackhole) {
+        ASSEMBLER.forEachSorted(flats.iterator(), OrderFlatDto::getOrderId,
+                OrderFlatDto::toOrderQueryDto, OrderFlatDto::toOrderItemQueryDto, blackhole::consume);
+    }
+
+    // 루트 조회 결과 (정렬된 플랫 row에서 주문마다 첫 row)
+    private List<OrderQueryDto> orders() {
+        List<OrderQueryDto> orders = new ArrayList<>(ROWS / itemsPerOrder + 1);
+        for (int i = 0; i < ROWS; i += itemsPerOrder) {
+            orders.add(flats.get(i).toOrderQueryDto());
+        }
+        return orders;
+    }
+}
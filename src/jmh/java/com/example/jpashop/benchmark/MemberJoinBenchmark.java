@@ -0,0 +1,68 @@
+package com.example.jpashop.benchmark;
+
+import com.example.jpashop.modules.member.Address;
+import com.example.jpashop.modules.member.Member;
+import com.example.jpashop.modules.member.MemberService;
+import com.example.jpashop.support.datagen.DatasetGenerator;
+import com.example.jpashop.support.datagen.DatasetSpec;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 회원가입 처리량 (기존 회원 members명)
+ * - filter=false : 가입마다 이름으로 중복 조회
+ * - filter=true  : 처음 보는 이름은 조회 없이 insert만 실행
+ *
+ * ./gradlew jmh -PjmhArgs='MemberJoinBenchmark -t 4'
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MemberJoinBenchmark {
+
+    @Param({"1000000"})
+    int members;
+
+    @Param({"true", "false"})
+    boolean filter;
+
+    private ConfigurableApplicationContext context;
+    private MemberService memberService;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("jpashop.member.name-filter.enabled=" + filter);
+        seed(members);
+        memberService = context.getBean(MemberService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long join() {
+        Member member = new Member();
+        member.setName("signup-" + sequence.incrementAndGet());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        return memberService.join(member);
+    }
+
+    // 회원 n명만 생성한다. (이름 필터도 생성 후 다시 채워진다.)
+    private void seed(int count) {
+        DatasetSpec spec = new DatasetSpec();
+        spec.setMembers(count);
+        spec.setItems(0);
+        spec.setCategoryRoots(0);
+        spec.setOrders(0);
+        context.getBean(DatasetGenerator.class).generate(spec);
+    }
+}
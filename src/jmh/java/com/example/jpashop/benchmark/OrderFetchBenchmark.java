@@ -0,0 +1,156 @@
+package com.example.jpashop.benchmark;
+
+import com.example.jpashop.api.OrderApiController;
+import com.example.jpashop.modules.order.OrderQueryRepository;
+import com.example.jpashop.support.datagen.DatasetGenerator;
+import com.example.jpashop.support.datagen.DatasetSpec;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 주문 조회 전략(v2 ~ v6) 비교
+ * - 조회 + DTO 변환 + JSON 직렬화까지 API 한 번 호출 비용을 측정한다. (응답은 버린다)
+ * - 컨트롤러는 OSIV 상태에서 실행되므로 읽기 전용 트랜잭션 안에서 호출한다.
+ * - 처리량/지연시간 분포는 JMH가, op당 할당량은 -prof gc가 측정하고
+ *   op당 SQL 실행 수는 Hibernate 통계로 세서 trial 종료 시 로그로 남긴다.
+ * - v1은 엔티티 양방향 연관관계 때문에 JSON 직렬화가 끝나지 않으므로 제외한다.
+ *
+ * ./gradlew jmh -PjmhArgs='OrderFetchBenchmark -p orders=1000 -p itemsPerOrder=10'
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderFetchBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderFetchBenchmark.class);
+
+    @Param({"100", "1000"})
+    int orders;
+
+    @Param({"2", "10"})
+    int itemsPerOrder;
+
+    private ConfigurableApplicationContext context;
+    private OrderApiController controller;
+    private OrderQueryRepository orderQueryRepository;
+    private ObjectMapper objectMapper;
+    private TransactionTemplate readOnly;
+    private Statistics statistics;
+
+    private String benchmark;
+    private long statementsBefore;
+    private long operations;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) {
+        context = BenchmarkContext.start();
+        seed();
+
+        controller = context.getBean(OrderApiController.class);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        statistics = BenchmarkContext.statistics(context);
+
+        benchmark = params.getBenchmark();
+        statementsBefore = statistics.getPrepareStatementCount();
+        operations = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (operations > 0) {
+            long statements = statistics.getPrepareStatementCount() - statementsBefore;
+            log.warn("{} orders={} itemsPerOrder={} : SQL {} / op",
+                    benchmark, orders, itemsPerOrder, String.format("%.1f", (double) statements / operations));
+        }
+        context.close();
+    }
+
+    // 회원 10명당 주문 수, 상품 100개, 주문마다 상품 itemsPerOrder개 (취소 없음)
+    private void seed() {
+        DatasetSpec spec = new DatasetSpec();
+        spec.setMembers(Math.max(orders / 10, 1));
+        spec.setItems(100);
+        spec.setOrders(orders);
+        spec.setMinItemsPerOrder(itemsPerOrder);
+        spec.setMaxItemsPerOrder(itemsPerOrder);
+        spec.setMeanItemsPerOrder(itemsPerOrder);
+        spec.setCancelRatio(0);
+        context.getBean(DatasetGenerator.class).generate(spec);
+    }
+
+    @Benchmark
+    public void v2_entityToDto() {
+        write(controller::ordersV2);
+    }
+
+    @Benchmark
+    public void v3_fetchJoin() {
+        write(controller::ordersV3);
+    }
+
+    @Benchmark
+    public void v3_1_batchFetch() {
+        write(() -> controller.ordersV3_page(0, orders));
+    }
+
+    @Benchmark
+    public void v4_dtoQuery() {
+        write(controller::ordersV4);
+    }
+
+    @Benchmark
+    public void v5_dtoInQuery() {
+        write(controller::ordersV5);
+    }
+
+    @Benchmark
+    public void v6_flatStream() {
+        operations++;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            generator.writeStartArray();
+            orderQueryRepository.forEachByDto_flat(order -> writeObject(generator, order));
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(Supplier<?> api) {
+        operations++;
+        readOnly.executeWithoutResult(status -> {
+            try {
+                objectMapper.writeValue(OutputStream.nullOutputStream(), api.get());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static void writeObject(JsonGenerator generator, Object value) {
+        try {
+            generator.writeObject(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.jpashop.api;
+
+import com.example.jpashop.modules.category.Category;
+import com.example.jpashop.modules.category.CategoryService;
+import com.example.jpashop.modules.category.CategoryTree;
+import com.example.jpashop.modules.category.CategoryTreeSnapshot;
+import com.example.jpashop.modules.item.Item;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequiredArgsConstructor
+public class CategoryApiController {
+
+    private final CategoryService categoryService;
+    private final CategoryTreeSnapshot categoryTreeSnapshot;
+
+    /**
+     * 카테고리 전체 트리
+     * - 메모리 스냅샷에서 바로 응답한다. (DB 접근 없음)
+     */
+    @GetMapping("/api/categories")
+    public List<CategoryTree.Node> categories() {
+        return categoryTreeSnapshot.get().getRoots();
+    }
+
+    /**
+     * 하위 카테고리 전체 (쿼리 1번)
+     */
+    @GetMapping("/api/categories/{id}/descendants")
+    public List<CategoryDto> descendants(@PathVariable("id") Long id) {
+        return categoryService.findDescendants(id).stream()
+                .map(CategoryDto::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 하위 트리에 속한 상품 (페이징, 쿼리 2번: 목록 + count)
+     */
+    @GetMapping("/api/categories/{id}/items")
+    public PageResult<ItemDto> items(@PathVariable("id") Long id,
+                                     @RequestParam(value = "page", defaultValue = "0") int page,
+                                     @RequestParam(value = "size", defaultValue = "20") int size) {
+        Page<Item> items = categoryService.findItems(id, PageRequest.of(page, Math.min(size, 100)));
+        return new PageResult<>(items.map(ItemDto::new));
+    }
+
+    @PostMapping("/api/categories")
+    public CreateCategoryResponse create(@RequestBody @Valid CreateCategoryRequest request) {
+        return new CreateCategoryResponse(categoryService.create(request.getName(), request.getParentId()));
+    }
+
+    /**
+     * 하위 트리째 다른 부모 아래로 이동 (parentId가 없으면 루트로)
+     */
+    @PostMapping("/api/categories/{id}/parent")
+    public void move(@PathVariable("id") Long id, @RequestBody MoveCategoryRequest request) {
+        categoryService.move(id, request.getParentId());
+    }
+
+    @Data
+    static class CreateCategoryRequest {
+        @NotEmpty
+        private String name;
+        private Long parentId;
+    }
+
+    @Data
+    static class MoveCategoryRequest {
+        private Long parentId;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CreateCategoryResponse {
+        private Long id;
+    }
+
+    @Data
+    static class CategoryDto {
+        private Long id;
+        private String name;
+        private int depth;
+
+        CategoryDto(Category category) {
+            id = category.getId();
+            name = category.getName();
+            depth = category.getDepth();
+        }
+    }
+
+    @Data
+    static class ItemDto {
+        private Long id;
+        private String name;
+        private int price;
+        private int stockQuantity;
+
+        ItemDto(Item item) {
+            id = item.getId();
+            name = item.getName();
+            price = item.getPrice();
+            stockQuantity = item.getStockQuantity();
+        }
+    }
+
+    @Data
+    static class PageResult<T> {
+        private List<T> data;
+        private int page;
+        private int size;
+        private long totalElements;
+        private int totalPages;
+
+        PageResult(Page<T> page) {
+            this.data = page.getContent();
+            this.page = page.getNumber();
+            this.size = page.getSize();
+            this.totalElements = page.getTotalElements();
+            this.totalPages = page.getTotalPages();
+        }
+    }
+}
@@ -1,25 +1,122 @@
 package com.example.jpashop.api;
 
+import com.example.jpashop.modules.item.Item;
 import com.example.jpashop.modules.member.Address;
+import com.example.jpashop.modules.member.Member;
 import com.example.jpashop.modules.order.*;
 import com.example.jpashop.modules.orderItem.OrderItem;
+import com.example.jpashop.support.FieldSelection;
+import com.example.jpashop.support.OptimisticRetry;
+import com.example.jpashop.support.etag.ConditionalGet;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import javax.annotation.sql.DataSourceDefinitions;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
 public class OrderApiController {
 
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
     private final OrderRepository orderRepository;
     private final OrderQueryRepository orderQueryRepository;
+    private final ObjectMapper objectMapper;
+    private final OrderService orderService;
+    private final OptimisticRetry optimisticRetry;
+
+    /**
+     * 장바구니 주문
+     * - 상품 여러 개를 주문 하나로 생성한다.
+     */
+    @PostMapping("/api/v1/orders")
+    public CreateOrderResponse checkout(@RequestBody @Valid CreateOrderRequest request) {
+        Long orderId = optimisticRetry.execute(() -> orderService.checkout(request.getMemberId(), request.getLines()));
+        return new CreateOrderResponse(orderId);
+    }
+
+    @Data
+    static class CreateOrderRequest {
+        @NotNull
+        private Long memberId;
+        @NotEmpty
+        private List<OrderLine> lines;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CreateOrderResponse {
+        private Long orderId;
+    }
+
+    /**
+     * 주문 일괄 취소
+     * - 주문 수와 무관하게 쿼리 4번으로 재고 복구와 상태 변경을 한다.
+     */
+    @PostMapping("/api/v1/orders/cancel")
+    public CancelOrdersResponse cancelOrders(@RequestBody @Valid CancelOrdersRequest request) {
+        Map<Long, OrderCancelResult> results = orderService.cancelOrders(request.getOrderIds());
+        return new CancelOrdersResponse(results.entrySet().stream()
+                .map(entry -> new CancelOrderResult(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList()));
+    }
+
+    @Data
+    static class CancelOrdersRequest {
+        @NotEmpty
+        @Size(max = 1000)
+        private List<@NotNull Long> orderIds;
+    }
+
+    @Data
+    static class CancelOrdersResponse {
+        private int cancelled;
+        private List<CancelOrderResult> results;
+
+        CancelOrdersResponse(List<CancelOrderResult> results) {
+            this.cancelled = (int) results.stream().filter(r -> r.getResult() == OrderCancelResult.CANCELLED).count();
+            this.results = results;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CancelOrderResult {
+        private Long orderId;
+        private OrderCancelResult result;
+    }
+
+    // ?fields= 로 고를 수 있는 필드
+    private static final FieldSelection ORDER_FIELDS = FieldSelection.allowed(
+            "id", "orderDate", "status",
+            "member.id", "member.name", "member.address",
+            "delivery.address", "delivery.status",
+            "orderItems.orderPrice", "orderItems.count",
+            "orderItems.item.id", "orderItems.item.name", "orderItems.item.price");
 
     /**
      * v1. 엔티티 직접 노출
@@ -27,6 +124,7 @@ public class OrderApiController {
      * - 트랜잭션 안에서 지연로딩 필요
      * - 양방향 연관관계 문제
      */
+    @ConditionalGet({Order.class, Member.class, Item.class})
     @GetMapping("/api/v1/orders")
     public List<Order> ordersV1() {
         List<Order> all = orderRepository.findAll();
@@ -44,10 +142,33 @@ public class OrderApiController {
         return all;
     }
 
+    /**
+     * v1-1. 필드 선택 (?fields=id,status,member.name,orderItems.item.name)
+     * - 선택한 연관관계만 엔티티 그래프로 페치 조인해서 쿼리 1번으로 조회한다.
+     * - 선택한 필드만 응답에 담으므로 직렬화 중에 지연 로딩이 없다.
+     */
+    @ConditionalGet({Order.class, Member.class, Item.class})
+    @GetMapping(value = "/api/v1/orders", params = "fields")
+    public List<Object> ordersV1_fields(@RequestParam("fields") String fields) {
+        FieldSelection selection = selectFields(ORDER_FIELDS, fields);
+        return orderRepository.findAll(selection).stream()
+                .map(selection::project)
+                .collect(Collectors.toList());
+    }
+
+    static FieldSelection selectFields(FieldSelection allowed, String fields) {
+        try {
+            return allowed.select(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     /**
      * v2. 엔티티를 조회해서 DTO로 변환, fetch join 사용 X
      * - 트랜잭션 안에서 지연로딩 필요
      */
+    @ConditionalGet({Order.class, Member.class, Item.class})
     @GetMapping("/api/v2/orders")
     public List<OrderDto> ordersV2() {
         List<Order> orders = orderRepository.findAll();
@@ -108,6 +229,7 @@ public class OrderApiController {
      * - 페이징 시에는 N부분을 포기해야 한다.
      * - 대신에 batch fetch size 옵션 주면 N -> 1 쿼리로 변경 가능
      */
+    @ConditionalGet({Order.class, Member.class, Item.class})
     @GetMapping("/api/v3/orders")
     public List<OrderDto> ordersV3() {
 
@@ -147,6 +269,8 @@ public class OrderApiController {
      * - @BatchSize : 개별 최적화
      * - 이 옵션을 사용하면 컬렉션이나 프록시 객체를 한꺼번에 설정한 size만큼 IN쿼리로 조회한다.
      */
+    @ConditionalGet({Order.class, Member.class, Item.class})
+    @GetMapping("/api/v3.1/orders")
     public List<OrderDto> ordersV3_page(@RequestParam(value = "offset", defaultValue = "0") int offset,
                                 @RequestParam(value = "limit", defaultValue = "100") int limit) {
         List<Order> orders = orderRepository.findAllWithMemberDelivery(offset, limit);
@@ -156,10 +280,30 @@ public class OrderApiController {
         return collect;
     }
 
+    /**
+     * v3-2. 키셋(커서) 페이징 + 컬렉션 엔티티 조회
+     * - offset은 건너뛴 row를 모두 읽고 버리므로 뒤 페이지일수록 느려진다.
+     * - 마지막 주문 다음부터 인덱스로 조회하므로 페이지 깊이와 무관하게 비용이 일정하다.
+     * - sort : id(order_id 순) 또는 date(orderDate, order_id 순), 응답의 nextCursor로 다음 페이지 요청
+     */
+    @ConditionalGet({Order.class, Member.class, Item.class})
+    @GetMapping("/api/v3.2/orders")
+    public CursorResult<OrderDto> ordersV3_cursor(@RequestParam(value = "cursor", required = false) String cursor,
+                                                  @RequestParam(value = "sort", defaultValue = "ID") OrderCursor.Sort sort,
+                                                  @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        OrderCursor orderCursor = OrderCursor.decode(cursor, sort);
+        List<Order> orders = orderRepository.findAllWithMemberDelivery(orderCursor, limit);
+        List<OrderDto> collect = orders.stream()
+                .map(order -> new OrderDto(order)).collect(Collectors.toList());
+
+        return new CursorResult<>(collect, nextCursor(orderCursor, collect, limit, OrderDto::getOrderId, OrderDto::getOrderDate));
+    }
+
     /**
      * v4. JPA에서 DTO로 바로 조회, 컬렉션 N 조회 (1 + N Query)
      * - 페이징 가능
      */
+    @ConditionalGet({Order.class, Member.class, Item.class})
     @GetMapping("/api/v4/orders")
     public List<OrderQueryDto> ordersV4() {
         return orderQueryRepository.findOrderQueryDtos();
@@ -169,17 +313,104 @@ public class OrderApiController {
      * v5. JPA에서 DTO로 바로 조회, 컬렉션 1 조회 최적화 버전 (1 + 1 Query)
      * - 페이징 가능
      */
+    @ConditionalGet({Order.class, Member.class, Item.class})
     @GetMapping("/api/v5/orders")
     public List<OrderQueryDto> ordersV5() {
         return orderQueryRepository.findAllByDto_optimization();
     }
 
+    /**
+     * v4-1. v4 + 키셋(커서) 페이징
+     * - 컬렉션은 v4처럼 주문마다 조회한다. (1 + N Query, N은 limit 이하)
+     * - archived=true면 보관 주문까지 합쳐서 조회한다.
+     */
+    @ConditionalGet({Order.class, Member.class, Item.class})
+    @GetMapping("/api/v4.1/orders")
+    public CursorResult<OrderQueryDto> ordersV4_cursor(@RequestParam(value = "cursor", required = false) String cursor,
+                                                       @RequestParam(value = "sort", defaultValue = "ID") OrderCursor.Sort sort,
+                                                       @RequestParam(value = "limit", defaultValue = "100") int limit,
+                                                       @RequestParam(value = "archived", defaultValue = "false") boolean archived) {
+        OrderCursor orderCursor = OrderCursor.decode(cursor, sort);
+        List<OrderQueryDto> result = orderQueryRepository.findOrderQueryDtos(orderCursor, limit, archived);
+        return new CursorResult<>(result, nextCursor(orderCursor, result, limit, OrderQueryDto::getOrderId, OrderQueryDto::getOrderDate));
+    }
+
+    /**
+     * v5-1. v5 + 키셋(커서) 페이징
+     * - 컬렉션은 IN 절 배치 조회로 한번에 가져온다. (1 + 1 Query)
+     */
+    @ConditionalGet({Order.class, Member.class, Item.class})
+    @GetMapping("/api/v5.1/orders")
+    public CursorResult<OrderQueryDto> ordersV5_cursor(@RequestParam(value = "cursor", required = false) String cursor,
+                                                       @RequestParam(value = "sort", defaultValue = "ID") OrderCursor.Sort sort,
+                                                       @RequestParam(value = "limit", defaultValue = "100") int limit,
+                                                       @RequestParam(value = "archived", defaultValue = "false") boolean archived) {
+        OrderCursor orderCursor = OrderCursor.decode(cursor, sort);
+        List<OrderQueryDto> result = orderQueryRepository.findAllByDto_optimization(orderCursor, limit, archived);
+        return new CursorResult<>(result, nextCursor(orderCursor, result, limit, OrderQueryDto::getOrderId, OrderQueryDto::getOrderDate));
+    }
+
+    // 마지막 페이지(limit 미만)면 null
+    private <T> String nextCursor(OrderCursor cursor, List<T> page, int limit,
+                                  Function<T, Long> orderId, Function<T, LocalDateTime> orderDate) {
+        if (page.isEmpty() || page.size() < limit) {
+            return null;
+        }
+        T last = page.get(page.size() - 1);
+        return cursor.next(orderId.apply(last), orderDate.apply(last)).encode();
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CursorResult<T> {
+        private List<T> data;
+        private String nextCursor;
+    }
+
     /**
      * v6. JPA에서 DTO로 바로 조회, 플랫 데이터 (1Query)
      * - 페이징 불가능
+     * - 결과를 List로 모으지 않고 커서로 한 row씩 읽어서 주문 단위로 묶는 즉시 응답에 쓴다.
+     * - 전체 주문 수와 무관하게 메모리 사용량이 일정하다. (JSON 배열을 chunked로 전송)
      */
-    @GetMapping("/api/v6/orders")
-    public List<OrderQueryDto> ordersV6() {
-        List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat();
+    @ConditionalGet({Order.class, Member.class, Item.class})
+    @GetMapping(value = "/api/v6/orders", produces = MediaType.APPLICATION_JSON_VALUE)
+    public void ordersV6(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            orderQueryRepository.forEachByDto_flat(order -> writeOrder(generator, order, false));
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * v6. NDJSON 스트리밍 (Accept: application/x-ndjson)
+     * - 주문 하나당 JSON 한 줄
+     */
+    @ConditionalGet({Order.class, Member.class, Item.class})
+    @GetMapping(value = "/api/v6/orders", produces = APPLICATION_NDJSON_VALUE)
+    public void ordersV6_ndjson(HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            // 루트 값 사이의 기본 구분자(공백) 대신 줄바꿈만 사용
+            generator.setRootValueSeparator(null);
+            orderQueryRepository.forEachByDto_flat(order -> writeOrder(generator, order, true));
+        }
+    }
+
+    private void writeOrder(JsonGenerator generator, OrderQueryDto order, boolean newLine) {
+        try {
+            generator.writeObject(order);
+            if (newLine) {
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
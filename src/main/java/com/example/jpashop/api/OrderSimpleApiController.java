@@ -1,10 +1,15 @@
 package com.example.jpashop.api;
 
 import com.example.jpashop.modules.member.Address;
+import com.example.jpashop.modules.member.Member;
 import com.example.jpashop.modules.order.*;
+import com.example.jpashop.support.FieldSelection;
+import com.example.jpashop.support.etag.ConditionalGet;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
@@ -24,12 +29,14 @@ public class OrderSimpleApiController {
 
     private final OrderRepository orderRepository;
     private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final OrderSummaryService orderSummaryService;
 
     /**
      * v1. 엔티티 직접 노출
      * - Hibernate5Module 등록, LAZY = null 처리
      * - 양방향 관계 문제 발생 -> @JsonIgnore
      */
+    @ConditionalGet({Order.class, Member.class})
     @GetMapping("/api/v1/simple-orders")
     public List<Order> ordersV1() {
         List<Order> all = orderRepository.findAll();
@@ -46,10 +53,30 @@ public class OrderSimpleApiController {
         // Hibernate5Module을 스프링 빈으로 등록하면 해결된다.
     }
 
+    // ?fields= 로 고를 수 있는 필드 (주문 + 회원 + 배송)
+    private static final FieldSelection SIMPLE_ORDER_FIELDS = FieldSelection.allowed(
+            "id", "orderDate", "status",
+            "member.id", "member.name", "member.address",
+            "delivery.address", "delivery.status");
+
+    /**
+     * v1-1. 필드 선택 (?fields=id,member.name,delivery)
+     * - 선택한 ToOne 관계만 엔티티 그래프로 페치 조인한다. (쿼리 1번, 직렬화 중 지연 로딩 없음)
+     */
+    @ConditionalGet({Order.class, Member.class})
+    @GetMapping(value = "/api/v1/simple-orders", params = "fields")
+    public List<Object> ordersV1_fields(@RequestParam("fields") String fields) {
+        FieldSelection selection = OrderApiController.selectFields(SIMPLE_ORDER_FIELDS, fields);
+        return orderRepository.findAll(selection).stream()
+                .map(selection::project)
+                .collect(Collectors.toList());
+    }
+
     /**
      * v2. 엔티티를 조회해서 DTO로 변환,  fetch join 사용 X
      * - 단점 : 지연로딩으로 쿼리 N번 호출
      */
+    @ConditionalGet({Order.class, Member.class})
     @GetMapping("/api/v2/simple-orders")
     public List<SimpleOrderDto> ordersV2() {
         List<Order> orders = orderRepository.findAll();
@@ -81,6 +108,7 @@ public class OrderSimpleApiController {
      * v3. 엔티티를 조회해서 DTO로 변환,  fetch join 사용 O
      * - fetch join으로 쿼리 1번 호출
      */
+    @ConditionalGet({Order.class, Member.class})
     @GetMapping("/api/v3/simple-orders")
     public List<SimpleOrderDto> ordersV3() {
         // 페치 조인으로 order -> member, order -> delivery는 이미 조회된 상태이므로 지연로딩 X
@@ -96,9 +124,22 @@ public class OrderSimpleApiController {
      * - 쿼리 1번 호출
      * - select 절에서 원하는 데이터만 선택해서 조회
      */
+    @ConditionalGet({Order.class, Member.class})
     @GetMapping("/api/v4/simple-orders")
     public List<OrderSimpleQueryDto> ordersV4() {
         return orderSimpleQueryRepository.findOrderDtos();
     }
 
+    /**
+     * v5. 주문 요약 테이블(order_summary)에서 조회
+     * - 조인 없이 주문당 1 row인 테이블 하나만 조회
+     * - 주문/취소/회원 이름 변경 시 같은 트랜잭션에서 갱신된다.
+     * - memberName(앞부분 일치), orderStatus로 검색, archived=true면 보관 주문도 검색
+     */
+    @ConditionalGet({Order.class, Member.class})
+    @GetMapping("/api/v5/simple-orders")
+    public List<OrderSimpleQueryDto> ordersV5(@ModelAttribute OrderSearch orderSearch) {
+        return orderSummaryService.findOrderSummaries(orderSearch);
+    }
+
 }
@@ -0,0 +1,72 @@
+package com.example.jpashop.api;
+
+import com.example.jpashop.modules.item.Item;
+import com.example.jpashop.modules.member.Member;
+import com.example.jpashop.modules.order.DailySalesDto;
+import com.example.jpashop.modules.order.Order;
+import com.example.jpashop.modules.order.SalesDto;
+import com.example.jpashop.modules.order.SalesService;
+import com.example.jpashop.support.etag.ConditionalGet;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 판매 집계 API (기간은 주문일 기준, from ~ to 포함)
+ */
+@RestController
+@RequiredArgsConstructor
+public class SalesApiController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final SalesService salesService;
+
+    /**
+     * 일별 판매
+     * - 일별 카운터(daily_sales)만 읽으므로 주문 수와 무관하게 날짜 수 x stripe 수만큼만 읽는다.
+     */
+    @GetMapping("/api/v1/sales/daily")
+    public List<DailySalesDto> daily(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                     @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        checkPeriod(from, to);
+        return salesService.findDailySales(from, to);
+    }
+
+    /**
+     * 상품별 판매 (금액 순, DB에서 group by)
+     */
+    @ConditionalGet({Order.class, Item.class})
+    @GetMapping("/api/v1/sales/items")
+    public List<SalesDto> items(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        checkPeriod(from, to);
+        return salesService.findSalesByItem(from, to, Math.min(Math.max(limit, 1), MAX_LIMIT));
+    }
+
+    /**
+     * 회원별 판매 (금액 순, DB에서 group by)
+     */
+    @ConditionalGet({Order.class, Member.class})
+    @GetMapping("/api/v1/sales/members")
+    public List<SalesDto> members(@RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                  @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                  @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        checkPeriod(from, to);
+        return salesService.findSalesByMember(from, to, Math.min(Math.max(limit, 1), MAX_LIMIT));
+    }
+
+    private void checkPeriod(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from은 to보다 늦을 수 없습니다.");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.jpashop.config;
+
+import com.example.jpashop.modules.order.SalesService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 일별 판매 카운터 재생성 명령
+ * - java -jar jpashop.jar --rebuild-daily-sales
+ */
+@Component
+@RequiredArgsConstructor
+public class DailySalesRebuildRunner implements ApplicationRunner {
+
+    static final String OPTION = "rebuild-daily-sales";
+
+    private final SalesService salesService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(OPTION)) {
+            salesService.rebuildDailySales();
+        }
+    }
+}
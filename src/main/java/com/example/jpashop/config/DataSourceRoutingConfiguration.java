@@ -0,0 +1,69 @@
+package com.example.jpashop.config;
+
+import com.example.jpashop.support.datasource.ReplicaRouter;
+import com.example.jpashop.support.datasource.RoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 읽기/쓰기 DataSource 분리 (jpashop.datasource.routing.enabled=true)
+ * - 주 DB는 spring.datasource, 복제본은 replica-urls (계정은 주 DB와 같다)
+ * - 풀마다 HikariCP 메트릭(hikaricp.connections.*, 태그 pool)을 남긴다.
+ * - 복제본은 비동기로 따라오므로 읽기 전용 트랜잭션에서는 방금 쓴 데이터가 max-lag-millis만큼 늦게 보일 수 있다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpashop.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfiguration {
+
+    @Bean(destroyMethod = "close")
+    ReplicaRouter replicaRouter(DataSourceProperties properties, MeterRegistry registry,
+                                @Value("${jpashop.datasource.routing.replica-urls:}") String[] replicaUrls,
+                                @Value("${jpashop.datasource.routing.lag-query:}") String lagQuery,
+                                @Value("${jpashop.datasource.routing.max-lag-millis:1000}") long maxLagMillis,
+                                @Value("${jpashop.datasource.routing.health-check-interval-millis:5000}") long healthCheckIntervalMillis) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName(ReplicaRouter.PRIMARY);
+        primary.setMetricRegistry(registry);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.length; i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(replicaUrls[i].trim());
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            replica.setReadOnly(true);
+            replica.setMetricRegistry(registry);
+            replicas.put(replica.getPoolName(), replica);
+        }
+
+        ReplicaRouter router = new ReplicaRouter(primary, replicas, lagQuery, maxLagMillis, registry);
+        router.start(healthCheckIntervalMillis);
+        return router;
+    }
+
+    @Bean
+    DataSource dataSource(ReplicaRouter replicaRouter) {
+        return new LazyConnectionDataSourceProxy(new RoutingDataSource(replicaRouter));
+    }
+
+    // OSIV로 영속성 컨텍스트가 요청 끝까지 열려 있어도 트랜잭션마다 커넥션을 반납하고 다시 고르게 한다.
+    // (기본값은 처음 얻은 커넥션을 계속 쓰므로 읽기 트랜잭션 뒤의 쓰기가 복제본으로 갈 수 있다)
+    @Bean
+    HibernatePropertiesCustomizer connectionHandlingCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+}
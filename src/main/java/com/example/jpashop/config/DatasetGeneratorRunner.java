@@ -0,0 +1,50 @@
+package com.example.jpashop.config;
+
+import com.example.jpashop.modules.order.OrderSummaryService;
+import com.example.jpashop.modules.order.SalesService;
+import com.example.jpashop.support.datagen.DatasetGenerator;
+import com.example.jpashop.support.datagen.DatasetReport;
+import com.example.jpashop.support.datagen.DatasetSpec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * 대량 데이터 생성 명령 (application-datagen.yml)
+ * - java -jar jpashop.jar --spring.profiles.active=datagen --jpashop.datagen.orders=1000000
+ * - 생성 후 주문 요약, 일별 판매 카운터를 다시 만들고 종료한다.
+ */
+@Slf4j
+@Component
+@Profile("datagen")
+@RequiredArgsConstructor
+public class DatasetGeneratorRunner implements ApplicationRunner {
+
+    private final DatasetGenerator datasetGenerator;
+    private final OrderSummaryService orderSummaryService;
+    private final SalesService salesService;
+    private final Environment environment;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        DatasetSpec spec = Binder.get(environment).bind("jpashop.datagen", DatasetSpec.class).orElseGet(DatasetSpec::new);
+        DatasetReport report = datasetGenerator.generate(spec);
+
+        long start = System.currentTimeMillis();
+        int summaries = orderSummaryService.rebuild();
+        int sales = salesService.rebuildDailySales();
+        log.info("derived tables rebuilt. order_summary={}, daily_sales={}, {}ms",
+                summaries, sales, System.currentTimeMillis() - start);
+
+        log.warn("dataset ready: {}", report);
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.jpashop.config;
+
+import com.example.jpashop.modules.delivery.DeliveryStatusBatch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 배송 상태 일괄 변경 명령
+ * - java -jar jpashop.jar --update-delivery-status=/data/carrier-20250101.csv [--delivery-status-job=작업 id]
+ * - 작업 id를 주지 않으면 파일 이름을 쓴다. 같은 작업 id로 다시 실행하면 체크포인트부터 이어서 처리한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class DeliveryStatusBatchRunner implements ApplicationRunner {
+
+    static final String OPTION = "update-delivery-status";
+    static final String JOB_OPTION = "delivery-status-job";
+
+    private final DeliveryStatusBatch deliveryStatusBatch;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        Path feed = Path.of(args.getOptionValues(OPTION).get(0));
+        List<String> job = args.getOptionValues(JOB_OPTION);
+        String jobId = job == null || job.isEmpty() ? feed.getFileName().toString() : job.get(0);
+        deliveryStatusBatch.run(jobId, feed);
+    }
+}
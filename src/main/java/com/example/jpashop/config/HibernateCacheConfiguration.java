@@ -0,0 +1,58 @@
+package com.example.jpashop.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hibernate 2차 캐시 / 쿼리 캐시
+ * - 로컬 Caffeine JCache, 리전별 크기 제한과 TTL은 application.conf에 설정한다.
+ * - 캐시 매니저를 직접 만들어서 Hibernate에 넘겨주고, 같은 매니저로 hit/miss/eviction 메트릭을 등록한다.
+ *   (/actuator/metrics/cache.gets, cache.evictions ...)
+ */
+@Configuration
+public class HibernateCacheConfiguration {
+
+    public static final String ITEM_REGION = "item";
+    public static final String MEMBER_REGION = "member";
+    public static final String CATEGORY_REGION = "category";
+    public static final String CATEGORY_CHILD_REGION = "category-child";
+    public static final String CATEGORY_ITEMS_REGION = "category-items";
+
+    private static final List<String> REGIONS = Arrays.asList(
+            ITEM_REGION, MEMBER_REGION, CATEGORY_REGION, CATEGORY_CHILD_REGION, CATEGORY_ITEMS_REGION,
+            "default-query-results-region", "default-update-timestamps-region");
+
+    @Bean(destroyMethod = "close")
+    CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        return provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    @Bean
+    MeterBinder hibernateCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> REGIONS.forEach(region -> {
+            Cache<Object, Object> cache = hibernateCacheManager.getCache(region);
+            if (cache != null) {
+                JCacheMetrics.monitor(registry, cache, Tags.of("cacheManager", "hibernate"));
+            }
+        });
+    }
+}
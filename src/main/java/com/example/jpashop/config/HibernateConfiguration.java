@@ -1,9 +1,16 @@
 package com.example.jpashop.config;
 
+import com.example.jpashop.support.etag.EntityGenerations;
+import com.example.jpashop.support.etag.VersionFingerprintIntegrator;
 import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 @Configuration
 public class HibernateConfiguration {
 
@@ -13,4 +20,13 @@ public class HibernateConfiguration {
         hibernate5Module.configure(Hibernate5Module.Feature.FORCE_LAZY_LOADING, true);
         return hibernate5Module;
     }
+
+    /**
+     * 엔티티를 바꾼 트랜잭션이 커밋할 때 조건부 GET 지문의 세대를 같이 올린다.
+     */
+    @Bean
+    HibernatePropertiesCustomizer versionFingerprintCustomizer(EntityGenerations entityGenerations) {
+        IntegratorProvider integrators = () -> List.of(new VersionFingerprintIntegrator(entityGenerations));
+        return hibernateProperties -> hibernateProperties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, integrators);
+    }
 }
@@ -4,25 +4,106 @@ import com.example.jpashop.modules.delivery.Delivery;
 import com.example.jpashop.modules.item.Book;
 import com.example.jpashop.modules.member.Address;
 import com.example.jpashop.modules.member.Member;
+import com.example.jpashop.modules.member.MemberNameFilter;
+import com.example.jpashop.modules.member.MemberNameIndex;
 import com.example.jpashop.modules.order.Order;
+import com.example.jpashop.modules.order.OrderSummaryService;
+import com.example.jpashop.modules.order.SalesService;
 import com.example.jpashop.modules.orderItem.OrderItem;
+import com.example.jpashop.support.startup.StartupTimeline;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 
+/**
+ * 초기 데이터 (jpashop.init-db.mode)
+ * - sync(기본) : 빈 초기화 중에 넣는다. 다 넣을 때까지 애플리케이션이 뜨지 않는다.
+ * - async : 애플리케이션이 준비된 뒤(ApplicationReadyEvent) 백그라운드 스레드에서 넣는다. (fast-startup 프로필)
+ *   넣는 동안에는 초기 데이터가 일부만 보일 수 있다.
+ * - none : 넣지 않는다.
+ * - 이미 들어 있으면(스키마를 다시 만들지 않고 띄운 경우) 다시 넣지 않는다.
+ */
+@Slf4j
 @Component
-@RequiredArgsConstructor
 public class InitDb {
 
+    public enum Mode {
+        SYNC, ASYNC, NONE
+    }
+
     private final InitService initService;
+    private final OrderSummaryService orderSummaryService;
+    private final SalesService salesService;
+    private final MemberNameFilter memberNameFilter;
+    private final MemberNameIndex memberNameIndex;
+    private final ObjectProvider<StartupTimeline> startupTimeline;
+    private final TaskExecutor taskExecutor;
+    private final Mode mode;
+
+    public InitDb(InitService initService, OrderSummaryService orderSummaryService, SalesService salesService,
+                  MemberNameFilter memberNameFilter, MemberNameIndex memberNameIndex, ObjectProvider<StartupTimeline> startupTimeline,
+                  @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                  @Value("${jpashop.init-db.mode:sync}") String mode) {
+        this.initService = initService;
+        this.orderSummaryService = orderSummaryService;
+        this.salesService = salesService;
+        this.memberNameFilter = memberNameFilter;
+        this.memberNameIndex = memberNameIndex;
+        this.startupTimeline = startupTimeline;
+        this.taskExecutor = taskExecutor;
+        this.mode = Mode.valueOf(mode.toUpperCase());
+    }
 
     @PostConstruct
     public void init() {
+        if (mode == Mode.SYNC) {
+            phase(this::seed);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initAfterReady() {
+        if (mode == Mode.ASYNC) {
+            taskExecutor.execute(() -> phase(() -> {
+                seed();
+                // 준비 이벤트에서 채운 회원 이름 필터/색인에는 방금 넣은 회원이 없다.
+                memberNameFilter.warmUp();
+                memberNameIndex.warmUp();
+            }));
+        }
+    }
+
+    // 시작 시간 기록이 켜져 있으면 init-db 단계로 남긴다.
+    private void phase(Runnable task) {
+        StartupTimeline timeline = startupTimeline.getIfAvailable();
+        if (timeline == null) {
+            task.run();
+        } else {
+            timeline.phase("init-db", task);
+        }
+    }
+
+    private void seed() {
+        if (initService.isSeeded()) {
+            log.info("initial data already exists. skipped.");
+            return;
+        }
         initService.dbInit1();
         initService.dbInit2();
+
+        // em.persist로 직접 저장한 주문은 주문 요약, 일별 판매 카운터에 반영되지 않으므로 다시 만든다.
+        orderSummaryService.rebuild();
+        salesService.rebuildDailySales();
     }
 
     @Component
@@ -32,6 +113,13 @@ public class InitDb {
 
         private final EntityManager em;
 
+        public boolean isSeeded() {
+            return !em.createQuery("select m.id from Member m where m.name = :name", Long.class)
+                    .setParameter("name", "userA")
+                    .setMaxResults(1)
+                    .getResultList().isEmpty();
+        }
+
         public void dbInit1() {
             Member member = createMember("userA", "서울", "1가", "1234");
             em.persist(member);
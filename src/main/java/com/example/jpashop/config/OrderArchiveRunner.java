@@ -0,0 +1,37 @@
+package com.example.jpashop.config;
+
+import com.example.jpashop.modules.order.OrderArchiver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 주문 보관 명령
+ * - java -jar jpashop.jar --archive-orders : jpashop.order.archive.retention-days 이전 주문
+ * - java -jar jpashop.jar --archive-orders=2024-01-01 : 해당 날짜 이전 주문
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderArchiveRunner implements ApplicationRunner {
+
+    static final String OPTION = "archive-orders";
+
+    private final OrderArchiver orderArchiver;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPTION)) {
+            return;
+        }
+        List<String> values = args.getOptionValues(OPTION);
+        if (values.isEmpty() || values.get(0).isEmpty()) {
+            orderArchiver.archive();
+        } else {
+            orderArchiver.archive(LocalDate.parse(values.get(0)).atStartOfDay());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.jpashop.config;
+
+import com.example.jpashop.modules.order.OrderSummaryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 주문 요약 재생성 명령
+ * - java -jar jpashop.jar --rebuild-order-summary
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderSummaryRebuildRunner implements ApplicationRunner {
+
+    static final String OPTION = "rebuild-order-summary";
+
+    private final OrderSummaryService orderSummaryService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(OPTION)) {
+            orderSummaryService.rebuild();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.jpashop.config;
+
+import com.example.jpashop.support.startup.StartupTimeline;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * 시작 시간 단축 설정 (application-fast-startup.yml)
+ */
+@Configuration
+public class StartupConfiguration {
+
+    /**
+     * JPA(Hibernate) 부트스트랩을 백그라운드 스레드에서 실행한다. (jpashop.startup.background-jpa-bootstrap=true)
+     * - 매핑 분석, 스키마 검증을 하는 동안 메인 스레드는 나머지 빈을 만든다.
+     * - EntityManagerFactory를 처음 실제로 사용하는 쪽은 부트스트랩이 끝날 때까지 기다린다.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "jpashop.startup.background-jpa-bootstrap", havingValue = "true")
+    EntityManagerFactoryBuilderCustomizer backgroundJpaBootstrap(@Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                                                                 ObjectProvider<StartupTimeline> startupTimeline) {
+        TaskExecutorAdapter bootstrapExecutor = new TaskExecutorAdapter(taskExecutor);
+        startupTimeline.ifAvailable(timeline ->
+                bootstrapExecutor.setTaskDecorator(task -> () -> timeline.phase("jpa-bootstrap", task)));
+        return builder -> builder.setBootstrapExecutor(bootstrapExecutor);
+    }
+
+    /**
+     * 지연 초기화(spring.main.lazy-initialization)에서 제외할 빈
+     * - InitDb는 다른 빈이 참조하지 않으므로 지연 초기화하면 만들어지지 않는다. (sync 모드의 초기 데이터가 빠진다)
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerInitDb() {
+        return LazyInitializationExcludeFilter.forBeanTypes(InitDb.class);
+    }
+}
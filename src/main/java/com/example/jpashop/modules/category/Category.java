@@ -1,23 +1,44 @@
 package com.example.jpashop.modules.category;
 
+import com.example.jpashop.config.HibernateCacheConfiguration;
 import com.example.jpashop.modules.item.Item;
+import com.example.jpashop.support.PooledSequenceGenerator;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_category_path", columnList = "path"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfiguration.CATEGORY_REGION)
 @Getter @Setter
 public class Category {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(generator = PooledSequenceGenerator.NAME)
     @Column(name = "category_id")
     private Long id;
 
     private String name;
 
+    /**
+     * 조상 id 경로 (materialized path)
+     * - 루트는 "/", 1 -> 5 아래 카테고리는 "/1/5/"
+     * - 하위 트리 전체는 path like '{path}{id}/%' 한번으로 조회한다. (path 인덱스 범위 검색)
+     */
+    private String path;
+
+    /**
+     * 깊이 (루트 0)
+     * - path는 문자열 순이라 "/10/"이 "/5/"보다 앞서고 깊이 순도 아니므로 깊이 순 조회는 이 값으로 정렬한다.
+     */
+    private int depth;
+
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfiguration.CATEGORY_ITEMS_REGION)
     @ManyToMany
     @JoinTable(name = "category_item",
         joinColumns = @JoinColumn(name = "category_id"),
@@ -28,11 +49,36 @@ public class Category {
     @JoinColumn(name = "parent_id")
     private Category parent;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfiguration.CATEGORY_CHILD_REGION)
     @OneToMany(mappedBy = "parent")
     private List<Category> child = new ArrayList<>();
 
+    /**
+     * 자식 카테고리 추가
+     * - path에 부모 id가 들어가므로 부모가 아직 저장 전이면 자식의 path는 자식을 저장할 때 정한다.
+     *   부모를 먼저 저장해야 하고, 그렇지 않으면 자식 저장 시 IllegalStateException이 발생한다.
+     */
     public void addChildCategory(Category child) {
         this.child.add(child);
         child.setParent(this);
+        child.setPath(id == null ? null : getSubtreePath());
+        child.setDepth(depth + 1);
+    }
+
+    /**
+     * 자식 카테고리들의 path (하위 트리 검색 prefix)
+     */
+    public String getSubtreePath() {
+        if (id == null) {
+            throw new IllegalStateException("저장된 카테고리만 자식을 가질 수 있습니다.");
+        }
+        return path + id + "/";
+    }
+
+    @PrePersist
+    void initPath() {
+        if (path == null) {
+            path = parent == null ? "/" : parent.getSubtreePath();
+        }
     }
 }
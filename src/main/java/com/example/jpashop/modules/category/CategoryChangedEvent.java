@@ -0,0 +1,14 @@
+package com.example.jpashop.modules.category;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 카테고리 추가/이동 (커밋 후 트리 스냅샷을 다시 만든다)
+ */
+@Getter
+@RequiredArgsConstructor
+public class CategoryChangedEvent {
+
+    private final Long categoryId;
+}
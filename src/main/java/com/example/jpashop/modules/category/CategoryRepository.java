@@ -0,0 +1,86 @@
+package com.example.jpashop.modules.category;
+
+import com.example.jpashop.modules.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class CategoryRepository {
+
+    private final EntityManager em;
+
+    public void save(Category category) {
+        em.persist(category);
+    }
+
+    public Category findOne(Long id) {
+        return em.find(Category.class, id);
+    }
+
+    /**
+     * 하위 카테고리 전체 (자기 자신 제외, 깊이 순)
+     */
+    public List<Category> findDescendants(Category category) {
+        return em.createQuery("select c from Category c" +
+                        " where c.path like :subtree" +
+                        " order by c.depth, c.path, c.id", Category.class)
+                .setParameter("subtree", category.getSubtreePath() + "%")
+                .getResultList();
+    }
+
+    /**
+     * 하위 트리(자기 자신 포함)에 속한 상품 (페이징)
+     * - 여러 카테고리에 속한 상품도 한 번만 나온다.
+     */
+    public Page<Item> findItemsInSubtree(Category category, Pageable pageable) {
+        String subtree = " from Item i where i.id in (" +
+                "select ci.id from Category c join c.items ci" +
+                " where c.id = :categoryId or c.path like :subtree)";
+
+        List<Item> content = em.createQuery("select i" + subtree + " order by i.id", Item.class)
+                .setParameter("categoryId", category.getId())
+                .setParameter("subtree", category.getSubtreePath() + "%")
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () ->
+                em.createQuery("select count(i)" + subtree, Long.class)
+                        .setParameter("categoryId", category.getId())
+                        .setParameter("subtree", category.getSubtreePath() + "%")
+                        .getSingleResult());
+    }
+
+    /**
+     * 하위 트리를 다른 부모 아래로 옮길 때 path prefix와 깊이를 한번에 바꾼다. (벌크 연산)
+     */
+    public int replacePathPrefix(String oldPrefix, String newPrefix, int depthDelta) {
+        return em.createQuery("update Category c" +
+                        " set c.path = concat(:newPrefix, substring(c.path, :from)), c.depth = c.depth + :depthDelta" +
+                        " where c.path like :oldPrefixLike")
+                .setParameter("newPrefix", newPrefix)
+                .setParameter("depthDelta", depthDelta)
+                .setParameter("from", oldPrefix.length() + 1)
+                .setParameter("oldPrefixLike", oldPrefix + "%")
+                .executeUpdate();
+    }
+
+    /**
+     * 트리 스냅샷용 전체 노드 (엔티티 없이 한 번에)
+     */
+    public List<CategoryTree.Node> findAllNodes() {
+        return em.createQuery("select new com.example.jpashop.modules.category.CategoryTree$Node(c.id, c.name, c.parent.id, c.path)" +
+                        " from Category c" +
+                        " order by c.depth, c.path, c.id", CategoryTree.Node.class)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultList();
+    }
+}
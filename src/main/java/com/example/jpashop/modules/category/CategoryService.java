@@ -0,0 +1,82 @@
+package com.example.jpashop.modules.category;
+
+import com.example.jpashop.modules.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 카테고리 추가
+     * @param parentId null이면 루트
+     */
+    @Transactional
+    public Long create(String name, Long parentId) {
+        Category category = new Category();
+        category.setName(name);
+        if (parentId != null) {
+            findCategory(parentId).addChildCategory(category);
+        }
+        categoryRepository.save(category);
+
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getId()));
+        return category.getId();
+    }
+
+    /**
+     * 카테고리를 하위 트리째 다른 부모 아래로 옮긴다.
+     * @param parentId null이면 루트로
+     */
+    @Transactional
+    public void move(Long categoryId, Long parentId) {
+        Category category = findCategory(categoryId);
+        String oldSubtreePath = category.getSubtreePath();
+        int oldDepth = category.getDepth();
+
+        if (category.getParent() != null) {
+            category.getParent().getChild().remove(category);
+        }
+        if (parentId == null) {
+            category.setParent(null);
+            category.setPath("/");
+            category.setDepth(0);
+        } else {
+            Category parent = findCategory(parentId);
+            if (parent.getId().equals(category.getId()) || parent.getPath().startsWith(oldSubtreePath)) {
+                throw new IllegalArgumentException("하위 카테고리 아래로 옮길 수 없습니다.");
+            }
+            parent.addChildCategory(category);
+        }
+        categoryRepository.replacePathPrefix(oldSubtreePath, category.getSubtreePath(), category.getDepth() - oldDepth);
+
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
+    }
+
+    public List<Category> findDescendants(Long categoryId) {
+        return categoryRepository.findDescendants(findCategory(categoryId));
+    }
+
+    public Page<Item> findItems(Long categoryId, Pageable pageable) {
+        return categoryRepository.findItemsInSubtree(findCategory(categoryId), pageable);
+    }
+
+    private Category findCategory(Long categoryId) {
+        Category category = categoryRepository.findOne(categoryId);
+        if (category == null) {
+            throw new IllegalArgumentException("카테고리가 없습니다. id=" + categoryId);
+        }
+        return category;
+    }
+}
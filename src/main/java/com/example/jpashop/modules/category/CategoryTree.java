@@ -0,0 +1,100 @@
+package com.example.jpashop.modules.category;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 카테고리 트리 스냅샷 (불변)
+ * - 전체 카테고리를 쿼리 한 번으로 읽어서 만든다. 트리 탐색에 DB 접근이나 지연 로딩이 없다.
+ * - 카테고리가 바뀌면 통째로 새로 만들어서 교체한다. (CategoryTreeSnapshot)
+ */
+public final class CategoryTree {
+
+    private static final CategoryTree EMPTY = new CategoryTree(Collections.emptyList(), Collections.emptyMap());
+
+    private final List<Node> roots;
+    private final Map<Long, Node> nodes;
+
+    private CategoryTree(List<Node> roots, Map<Long, Node> nodes) {
+        this.roots = roots;
+        this.nodes = nodes;
+    }
+
+    public static CategoryTree empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param rows 깊이 순으로 정렬된 전체 노드 (부모가 자식보다 먼저 온다)
+     */
+    public static CategoryTree of(List<Node> rows) {
+        Map<Long, Node> nodes = new HashMap<>(rows.size() * 2);
+        Map<Long, List<Node>> children = new HashMap<>(rows.size() * 2);
+        List<Node> roots = new ArrayList<>();
+
+        for (Node node : rows) {
+            nodes.put(node.getId(), node);
+            children.put(node.getId(), new ArrayList<>());
+            List<Node> siblings = node.getParentId() == null ? roots : children.get(node.getParentId());
+            // 부모가 없는(정렬이 어긋난) 노드는 루트로 둔다.
+            (siblings != null ? siblings : roots).add(node);
+        }
+        children.forEach((id, list) -> nodes.get(id).children = Collections.unmodifiableList(list));
+
+        return new CategoryTree(Collections.unmodifiableList(roots), Collections.unmodifiableMap(nodes));
+    }
+
+    public List<Node> getRoots() {
+        return roots;
+    }
+
+    public Node get(Long id) {
+        return nodes.get(id);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * 하위 카테고리 전체 (자기 자신 제외, 깊이 우선)
+     */
+    public List<Node> getDescendants(Long id) {
+        Node node = nodes.get(id);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        List<Node> descendants = new ArrayList<>();
+        collect(node, descendants);
+        return descendants;
+    }
+
+    private void collect(Node node, List<Node> descendants) {
+        for (Node child : node.getChildren()) {
+            descendants.add(child);
+            collect(child, descendants);
+        }
+    }
+
+    @Getter
+    public static class Node {
+
+        private final Long id;
+        private final String name;
+        private final Long parentId;
+        private final String path;
+        private List<Node> children = Collections.emptyList();
+
+        public Node(Long id, String name, Long parentId, String path) {
+            this.id = id;
+            this.name = name;
+            this.parentId = parentId;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.jpashop.modules.category;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 카테고리 트리 스냅샷 보관
+ * - get()은 DB에 접근하지 않는다. (트랜잭션도 열지 않으므로 @Service가 아닌 @Component)
+ * - 애플리케이션이 뜰 때, 카테고리 변경이 커밋된 뒤에 새로 만들어서 교체한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryTreeSnapshot {
+
+    private final CategoryRepository categoryRepository;
+
+    private volatile CategoryTree tree = CategoryTree.empty();
+
+    public CategoryTree get() {
+        return tree;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void init() {
+        rebuild();
+    }
+
+    // 커밋이 끝난 뒤라 기존 트랜잭션을 쓸 수 없으므로 새 트랜잭션에서 읽는다.
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+
+    // 동시에 바뀌어도 나중에 읽은 트리가 나중에 교체되도록 순서대로 만든다.
+    private synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        tree = CategoryTree.of(categoryRepository.findAllNodes());
+        log.debug("category tree rebuilt. nodes={}, {}ms", tree.size(), System.currentTimeMillis() - start);
+    }
+}
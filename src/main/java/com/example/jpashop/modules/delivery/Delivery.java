@@ -2,6 +2,7 @@ package com.example.jpashop.modules.delivery;
 
 import com.example.jpashop.modules.member.Address;
 import com.example.jpashop.modules.order.Order;
+import com.example.jpashop.support.PooledSequenceGenerator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
@@ -9,10 +10,11 @@ import lombok.Setter;
 import javax.persistence.*;
 
 @Entity
+@Table(indexes = @Index(name = "idx_delivery_status_id", columnList = "status, id"))
 @Getter @Setter
 public class Delivery {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(generator = PooledSequenceGenerator.NAME)
     private Long id;
 
     // @JsonIgnore
@@ -0,0 +1,61 @@
+package com.example.jpashop.modules.delivery;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * 배송 상태 일괄 변경 작업의 파티션별 진행 위치
+ * - 파티션은 배송 id 범위 (fromId, toId] 이고, lastId까지 처리했다.
+ * - 청크를 쓰는 트랜잭션에서 같이 갱신하므로 재시작하면 커밋된 청크 다음부터 이어서 처리한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@IdClass(DeliveryBatchCheckpoint.Key.class)
+@Table(name = "delivery_batch_checkpoint")
+public class DeliveryBatchCheckpoint {
+
+    @Id
+    private String jobId;
+
+    @Id
+    private int partitionNo;
+
+    private long fromId;
+    private long toId;
+    private long lastId;
+
+    private long readCount;      // 읽은 READY 배송 수
+    private long updatedCount;   // 상태를 바꾼 배송 수
+    private boolean completed;
+
+    DeliveryBatchCheckpoint(String jobId, int partitionNo, long fromId, long toId) {
+        this.jobId = jobId;
+        this.partitionNo = partitionNo;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.lastId = fromId;
+    }
+
+    void advance(long lastId, int read, int updated, boolean completed) {
+        this.lastId = lastId;
+        this.readCount += read;
+        this.updatedCount += updated;
+        this.completed = completed;
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String jobId;
+        private int partitionNo;
+    }
+}
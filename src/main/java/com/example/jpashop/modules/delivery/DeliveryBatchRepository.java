@@ -0,0 +1,140 @@
+package com.example.jpashop.modules.delivery;
+
+import com.example.jpashop.modules.order.Order;
+import com.example.jpashop.modules.order.OrderStatus;
+import com.example.jpashop.support.etag.VersionFingerprint;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+public class DeliveryBatchRepository {
+
+    private final EntityManager em;
+    private final VersionFingerprint versionFingerprint;
+
+    // 주문 상태(취소되지 않은 주문)이고 배송 상태가 status인 배송의 최소/최대 id (없으면 null)
+    public Object[] findIdRange(DeliveryStatus status) {
+        return em.createQuery("select min(d.id), max(d.id) from Delivery d" +
+                        " join d.order o" +
+                        " where d.status = :status and o.status = :orderStatus", Object[].class)
+                .setParameter("status", status)
+                .setParameter("orderStatus", OrderStatus.ORDER)
+                .getSingleResult();
+    }
+
+    /**
+     * (afterId, toId] 범위에서 상태가 status인 배송 id를 id 순서로 limit개 (keyset, idx_delivery_status_id 범위 검색)
+     * - 취소된 주문의 배송은 읽지 않는다.
+     */
+    public List<Long> findIds(DeliveryStatus status, long afterId, long toId, int limit) {
+        return em.createQuery("select d.id from Delivery d" +
+                        " join d.order o" +
+                        " where d.status = :status and d.id > :afterId and d.id <= :toId" +
+                        " and o.status = :orderStatus" +
+                        " order by d.id", Long.class)
+                .setParameter("status", status)
+                .setParameter("orderStatus", OrderStatus.ORDER)
+                .setParameter("afterId", afterId)
+                .setParameter("toId", toId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 배송 상태 변경 (JDBC 배치)
+     * - 주문이 취소되지 않았고 배송이 from 상태일 때만 바꾼다. 읽은 뒤에 다른 트랜잭션이 바꿨으면 건너뛴다.
+     * - 주문 row를 먼저 잠근다(select ... for update). 주문 취소(OrderService.cancelOrder, cancelOrders)도
+     *   주문 row를 잠그고 배송 상태를 확인하므로, 동시에 실행돼도 취소된 주문의 배송이 바뀌거나 바뀐 배송의 주문이 취소되지 않는다.
+     * - 배송이 실제로 바뀐 주문만 버전을 올리고 조건부 GET 지문을 바꿔서 주문 조회 ETag가 바뀌게 한다. (배송에는 버전 컬럼이 없다)
+     * @return 바뀐 배송 수
+     */
+    public int updateStatus(long[] deliveryIds, DeliveryStatus[] statuses, int size, DeliveryStatus from) {
+        if (size == 0) {
+            return 0;
+        }
+        int changed = em.unwrap(Session.class).doReturningWork(connection -> {
+            Set<Long> ordered = new HashSet<>();
+            try (PreparedStatement lock = connection.prepareStatement(
+                    "select delivery_id from orders where status = ? and delivery_id in (" +
+                            String.join(",", Collections.nCopies(size, "?")) + ") for update")) {
+                lock.setString(1, OrderStatus.ORDER.name());
+                for (int i = 0; i < size; i++) {
+                    lock.setLong(i + 2, deliveryIds[i]);
+                }
+                try (ResultSet rs = lock.executeQuery()) {
+                    while (rs.next()) {
+                        ordered.add(rs.getLong(1));
+                    }
+                }
+            }
+            if (ordered.isEmpty()) {
+                return 0;
+            }
+
+            List<Long> updatedIds = new ArrayList<>(ordered.size());
+            try (PreparedStatement delivery = connection.prepareStatement(
+                    "update delivery set status = ? where id = ? and status = ?")) {
+                List<Long> batchedIds = new ArrayList<>(ordered.size());
+                for (int i = 0; i < size; i++) {
+                    if (!ordered.contains(deliveryIds[i])) {
+                        continue;
+                    }
+                    delivery.setString(1, statuses[i].name());
+                    delivery.setLong(2, deliveryIds[i]);
+                    delivery.setString(3, from.name());
+                    delivery.addBatch();
+                    batchedIds.add(deliveryIds[i]);
+                }
+                int[] counts = delivery.executeBatch();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] > 0) {
+                        updatedIds.add(batchedIds.get(i));
+                    }
+                }
+            }
+            if (updatedIds.isEmpty()) {
+                return 0;
+            }
+
+            try (PreparedStatement order = connection.prepareStatement(
+                    "update orders set version = version + 1 where delivery_id = ?")) {
+                for (Long deliveryId : updatedIds) {
+                    order.setLong(1, deliveryId);
+                    order.addBatch();
+                }
+                order.executeBatch();
+            }
+            return updatedIds.size();
+        });
+        if (changed > 0) {
+            versionFingerprint.changed(Order.class);
+        }
+        return changed;
+    }
+
+    public void saveCheckpoint(DeliveryBatchCheckpoint checkpoint) {
+        em.persist(checkpoint);
+    }
+
+    public DeliveryBatchCheckpoint findCheckpoint(String jobId, int partitionNo) {
+        return em.find(DeliveryBatchCheckpoint.class, new DeliveryBatchCheckpoint.Key(jobId, partitionNo));
+    }
+
+    public List<DeliveryBatchCheckpoint> findCheckpoints(String jobId) {
+        return em.createQuery("select c from DeliveryBatchCheckpoint c where c.jobId = :jobId order by c.partitionNo",
+                        DeliveryBatchCheckpoint.class)
+                .setParameter("jobId", jobId)
+                .getResultList();
+    }
+}
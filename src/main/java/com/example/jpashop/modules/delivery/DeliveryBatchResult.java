@@ -0,0 +1,22 @@
+package com.example.jpashop.modules.delivery;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 배송 상태 일괄 변경 결과 (재시작했으면 이전 실행분까지 합친 값)
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class DeliveryBatchResult {
+
+    private final String jobId;
+    private final int partitions;
+    private final long read;           // 읽은 READY 배송 수
+    private final long updated;        // 상태를 바꾼 배송 수
+    private final long feedLines;
+    private final long invalidLines;
+    private final long elapsedMillis;  // 이번 실행 시간
+}
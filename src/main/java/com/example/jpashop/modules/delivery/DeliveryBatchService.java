@@ -0,0 +1,86 @@
+package com.example.jpashop.modules.delivery;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 배송 상태 일괄 변경의 트랜잭션 단위 (DeliveryStatusBatch가 호출)
+ * - 청크 하나 = 트랜잭션 하나 (커밋 간격)
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class DeliveryBatchService {
+
+    private final DeliveryBatchRepository deliveryBatchRepository;
+
+    /**
+     * 파티션 계획
+     * - 같은 작업의 체크포인트가 있으면 그대로 쓴다. (재시작)
+     * - 없으면 READY 배송의 id 범위를 partitions개로 나눠서 저장한다.
+     */
+    public List<DeliveryBatchCheckpoint> plan(String jobId, int partitions) {
+        List<DeliveryBatchCheckpoint> checkpoints = deliveryBatchRepository.findCheckpoints(jobId);
+        if (!checkpoints.isEmpty()) {
+            return checkpoints;
+        }
+
+        Object[] range = deliveryBatchRepository.findIdRange(DeliveryStatus.READY);
+        checkpoints = new ArrayList<>(partitions);
+        if (range[0] == null) {
+            return checkpoints;
+        }
+        long from = (Long) range[0] - 1;
+        long to = (Long) range[1];
+        long width = Math.max((to - from + partitions - 1) / partitions, 1);
+        for (int p = 0; p < partitions && from < to; p++) {
+            long partitionTo = p == partitions - 1 ? to : Math.min(from + width, to);
+            DeliveryBatchCheckpoint checkpoint = new DeliveryBatchCheckpoint(jobId, p, from, partitionTo);
+            deliveryBatchRepository.saveCheckpoint(checkpoint);
+            checkpoints.add(checkpoint);
+            from = partitionTo;
+        }
+        return checkpoints;
+    }
+
+    /**
+     * 파티션의 다음 청크 처리
+     * - 체크포인트 다음 READY 배송 chunkSize개를 읽어서 파일에 있는 상태로 바꾸고, 같은 트랜잭션에서 체크포인트를 옮긴다.
+     * @return 파티션이 끝났으면 false
+     */
+    public boolean processChunk(String jobId, int partitionNo, DeliveryStatusFeed feed, int chunkSize) {
+        DeliveryBatchCheckpoint checkpoint = deliveryBatchRepository.findCheckpoint(jobId, partitionNo);
+        if (checkpoint.isCompleted()) {
+            return false;
+        }
+
+        List<Long> ids = deliveryBatchRepository.findIds(
+                DeliveryStatus.READY, checkpoint.getLastId(), checkpoint.getToId(), chunkSize);
+        long[] changedIds = new long[ids.size()];
+        DeliveryStatus[] statuses = new DeliveryStatus[ids.size()];
+        int changed = 0;
+        for (Long id : ids) {
+            DeliveryStatus status = feed.get(id);
+            if (status != null && status != DeliveryStatus.READY) {
+                changedIds[changed] = id;
+                statuses[changed] = status;
+                changed++;
+            }
+        }
+        int updated = deliveryBatchRepository.updateStatus(changedIds, statuses, changed, DeliveryStatus.READY);
+
+        boolean completed = ids.size() < chunkSize;
+        long lastId = ids.isEmpty() ? checkpoint.getToId() : ids.get(ids.size() - 1);
+        checkpoint.advance(lastId, ids.size(), updated, completed);
+        return !completed;
+    }
+
+    // 방금 커밋한 체크포인트를 읽으므로 읽기 전용(복제본)으로 보내지 않는다.
+    public List<DeliveryBatchCheckpoint> findCheckpoints(String jobId) {
+        return deliveryBatchRepository.findCheckpoints(jobId);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.jpashop.modules.delivery;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 배송 상태 일괄 변경 (택배사 야간 파일)
+ * - READY 배송을 id keyset으로 chunk-size개씩 읽고, 파일에 있는 상태로 JDBC 배치 update 한다.
+ *   엔티티를 읽지 않으므로 배송 수와 무관하게 메모리는 청크 크기와 파일 크기만큼만 쓴다.
+ * - READY 배송의 id 범위를 partitions개로 나눠서 파티션마다 스레드 하나로 동시에 처리한다.
+ * - 청크마다 커밋하고 체크포인트(delivery_batch_checkpoint)를 같이 옮긴다.
+ *   실패하거나 중단되면 같은 jobId로 다시 실행해서 이어서 처리한다. 끝난 작업을 다시 실행하면 아무것도 하지 않는다.
+ * - 파티션 범위는 처음 실행할 때 정해진다. 그 뒤에 생긴 배송은 대상이 아니다.
+ */
+@Slf4j
+@Component
+public class DeliveryStatusBatch {
+
+    private final DeliveryBatchService deliveryBatchService;
+    private final int partitions;
+    private final int chunkSize;
+
+    public DeliveryStatusBatch(DeliveryBatchService deliveryBatchService,
+                               @Value("${jpashop.delivery.batch.partitions:4}") int partitions,
+                               @Value("${jpashop.delivery.batch.chunk-size:1000}") int chunkSize) {
+        this.deliveryBatchService = deliveryBatchService;
+        this.partitions = partitions;
+        this.chunkSize = chunkSize;
+    }
+
+    public DeliveryBatchResult run(String jobId, Path feedFile) {
+        return run(jobId, feedFile, partitions, chunkSize);
+    }
+
+    DeliveryBatchResult run(String jobId, Path feedFile, int partitions, int chunkSize) {
+        long start = System.currentTimeMillis();
+        DeliveryStatusFeed feed = DeliveryStatusFeed.read(feedFile);
+        List<DeliveryBatchCheckpoint> plan = deliveryBatchService.plan(jobId, partitions);
+        log.info("delivery status batch started. job={}, feed={} ({} statuses), partitions={}, chunkSize={}",
+                jobId, feedFile, feed.size(), plan.size(), chunkSize);
+
+        if (!plan.isEmpty()) {
+            ExecutorService executor = Executors.newFixedThreadPool(plan.size(), new CustomizableThreadFactory("delivery-batch-"));
+            try {
+                List<Future<?>> futures = new ArrayList<>(plan.size());
+                for (DeliveryBatchCheckpoint checkpoint : plan) {
+                    int partitionNo = checkpoint.getPartitionNo();
+                    futures.add(executor.submit(() -> runPartition(jobId, partitionNo, feed, chunkSize)));
+                }
+                awaitAll(jobId, futures);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        DeliveryBatchResult result = result(jobId, feed, System.currentTimeMillis() - start);
+        log.info("delivery status batch finished. {}", result);
+        return result;
+    }
+
+    private void runPartition(String jobId, int partitionNo, DeliveryStatusFeed feed, int chunkSize) {
+        while (deliveryBatchService.processChunk(jobId, partitionNo, feed, chunkSize)) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    // 한 파티션이 실패해도 나머지는 끝까지 처리하고, 실패는 마지막에 알린다. (다시 실행하면 실패한 파티션만 이어서 처리)
+    private void awaitAll(String jobId, List<Future<?>> futures) {
+        RuntimeException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("배송 상태 일괄 변경이 중단되었습니다. job=" + jobId, e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = new IllegalStateException("배송 상태 일괄 변경에 실패했습니다. 같은 작업을 다시 실행하면 이어서 처리합니다. job=" + jobId, e.getCause());
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private DeliveryBatchResult result(String jobId, DeliveryStatusFeed feed, long elapsedMillis) {
+        List<DeliveryBatchCheckpoint> checkpoints = deliveryBatchService.findCheckpoints(jobId);
+        long read = 0;
+        long updated = 0;
+        for (DeliveryBatchCheckpoint checkpoint : checkpoints) {
+            read += checkpoint.getReadCount();
+            updated += checkpoint.getUpdatedCount();
+        }
+        return new DeliveryBatchResult(jobId, checkpoints.size(), read, updated,
+                feed.getLines(), feed.getInvalidLines(), elapsedMillis);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.jpashop.modules.delivery;
+
+import com.example.jpashop.support.LongObjectMap;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 택배사 배송 상태 파일
+ * - 한 줄에 "배송 id,상태" (예: 1024,COMP), 빈 줄과 #으로 시작하는 줄은 건너뛴다.
+ * - 형식이 틀린 줄은 작업을 멈추지 않고 건너뛰고 개수만 센다.
+ * - 같은 id가 여러 번 나오면 마지막 줄을 따른다.
+ * - 다 읽은 뒤에는 바꾸지 않으므로 여러 파티션 스레드가 같이 조회해도 된다.
+ */
+@Slf4j
+@Getter
+public class DeliveryStatusFeed {
+
+    private final LongObjectMap<DeliveryStatus> statuses;
+    private final long lines;
+    private final long invalidLines;
+
+    private DeliveryStatusFeed(LongObjectMap<DeliveryStatus> statuses, long lines, long invalidLines) {
+        this.statuses = statuses;
+        this.lines = lines;
+        this.invalidLines = invalidLines;
+    }
+
+    public static DeliveryStatusFeed read(Path path) {
+        LongObjectMap<DeliveryStatus> statuses = new LongObjectMap<>();
+        long lines = 0;
+        long invalid = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                lines++;
+                int comma = line.indexOf(',');
+                try {
+                    long deliveryId = Long.parseLong(line.substring(0, comma).trim());
+                    statuses.put(deliveryId, DeliveryStatus.valueOf(line.substring(comma + 1).trim()));
+                } catch (RuntimeException e) {
+                    if (invalid++ < 10) {
+                        log.warn("잘못된 배송 상태 줄을 건너뜁니다. {}:{} [{}]", path.getFileName(), lines, line);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("배송 상태 파일을 읽을 수 없습니다. " + path, e);
+        }
+        return new DeliveryStatusFeed(statuses, lines, invalid);
+    }
+
+    public DeliveryStatus get(long deliveryId) {
+        return statuses.get(deliveryId);
+    }
+
+    public int size() {
+        return statuses.size();
+    }
+}
@@ -1,21 +1,31 @@
 package com.example.jpashop.modules.item;
 
+import com.example.jpashop.config.HibernateCacheConfiguration;
 import com.example.jpashop.exception.NotEnoughStockException;
 import com.example.jpashop.modules.category.Category;
+import com.example.jpashop.support.PooledSequenceGenerator;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfiguration.ITEM_REGION) // Book, Album, Movie도 같은 리전 사용
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "dtype")
+@Table(indexes = {
+        @Index(name = "idx_item_name_id", columnList = "name, item_id"),
+        @Index(name = "idx_item_price_id", columnList = "price, item_id")
+})
 @Getter @Setter
 public abstract class Item {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(generator = PooledSequenceGenerator.NAME)
     @Column(name = "item_id")
     private Long id;
 
@@ -25,6 +35,9 @@ public abstract class Item {
 
     private int stockQuantity;
 
+    @Version
+    private Long version;
+
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
 
@@ -0,0 +1,92 @@
+package com.example.jpashop.modules.item;
+
+import com.example.jpashop.support.etag.VersionFingerprint;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 상품 목록 화면 조각 캐시
+ * - (정렬, 페이지, 크기)마다 렌더링한 HTML(표 + 페이지 이동)을 보관한다.
+ *   캐시가 있으면 상품 수와 무관하게 조회도 렌더링도 하지 않는다.
+ * - 키에 상품 버전 지문(VersionFingerprint)을 넣는다. 상품 등록/수정, 주문/취소의 재고 변경(벌크 update)이 커밋되면
+ *   지문이 바뀌므로 이전 조각은 다시 읽히지 않는다. 조건부 GET(ETag)과 같은 지문이라 새 ETag에 이전 조각이 나가지 않는다.
+ * - 지문은 렌더링 전에 읽는다. 그 사이에 커밋된 변경은 다음 지문의 키로 다시 렌더링된다.
+ * - 상품 등록/수정이 커밋되면 지나간 지문의 조각을 바로 비운다. (나머지는 expire-after-write로 빠진다)
+ */
+@Component
+public class ItemCatalogue {
+
+    static final String TEMPLATE = "items/itemTable";
+    static final Set<String> FRAGMENT = Set.of("itemTable");
+
+    private final ItemService itemService;
+    private final ITemplateEngine templateEngine;
+    private final VersionFingerprint versionFingerprint;
+    private final boolean enabled;
+    private final Cache<String, String> fragments;
+
+    public ItemCatalogue(ItemService itemService, ITemplateEngine templateEngine, VersionFingerprint versionFingerprint,
+                         @Value("${jpashop.item.catalogue-cache.enabled:true}") boolean enabled,
+                         @Value("${jpashop.item.catalogue-cache.maximum-size:1000}") long maximumSize,
+                         @Value("${jpashop.item.catalogue-cache.expire-after-write-seconds:10}") long expireAfterWriteSeconds) {
+        this.itemService = itemService;
+        this.templateEngine = templateEngine;
+        this.versionFingerprint = versionFingerprint;
+        this.enabled = enabled;
+        this.fragments = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .build();
+    }
+
+    public String render(ItemSearch itemSearch, HttpServletRequest request, HttpServletResponse response) {
+        if (!enabled) {
+            return renderFragment(itemSearch, request, response);
+        }
+        Pageable pageable = itemSearch.toPageable();
+        String key = versionFingerprint.of(Item.class) + ":" + itemSearch.getSort() + ":" + pageable.getPageNumber() + ":" + pageable.getPageSize();
+        return fragments.get(key, k -> renderFragment(itemSearch, request, response));
+    }
+
+    private String renderFragment(ItemSearch itemSearch, HttpServletRequest request, HttpServletResponse response) {
+        Page<Item> items = itemService.findItems(itemSearch);
+        // 요청마다 달라지는 URL 재작성(;jsessionid)이 캐시된 조각에 섞이지 않게 한다.
+        HttpServletResponse sharedResponse = new HttpServletResponseWrapper(response) {
+            @Override
+            public String encodeURL(String url) {
+                return url;
+            }
+        };
+        WebContext context = new WebContext(request, sharedResponse, request.getServletContext(), request.getLocale(),
+                Map.of("items", items, "itemSearch", itemSearch));
+        return templateEngine.process(TEMPLATE, FRAGMENT, context);
+    }
+
+    @TransactionalEventListener
+    public void onChanged(ItemChangedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        fragments.invalidateAll();
+    }
+
+    long size() {
+        fragments.cleanUp();
+        return fragments.estimatedSize();
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.jpashop.modules.item;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 상품 등록/수정 (커밋 후 상품 목록 캐시를 비운다)
+ */
+@Getter
+@RequiredArgsConstructor
+public class ItemChangedEvent {
+
+    private final Long itemId;
+}
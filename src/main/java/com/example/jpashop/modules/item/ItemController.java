@@ -1,18 +1,21 @@
 package com.example.jpashop.modules.item;
 
+import com.example.jpashop.support.etag.ConditionalGet;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
-import java.util.List;
 
 @Controller
 @RequiredArgsConstructor
 public class ItemController {
 
     private final ItemService itemService;
+    private final ItemCatalogue itemCatalogue;
 
     @GetMapping("/items/new")
     public String createForm(Model model) {
@@ -34,10 +37,11 @@ public class ItemController {
         return "redirect:/items";
     }
 
+    @ConditionalGet(Item.class)
     @GetMapping("/items")
-    public String list(Model model) {
-        List<Item> items = itemService.findItems();
-        model.addAttribute("items", items);
+    public String list(@ModelAttribute("itemSearch") ItemSearch itemSearch, Model model,
+                       HttpServletRequest request, HttpServletResponse response) {
+        model.addAttribute("itemTable", itemCatalogue.render(itemSearch, request, response));
         return "items/itemList";
     }
 
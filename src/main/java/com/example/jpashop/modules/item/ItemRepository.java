@@ -1,16 +1,40 @@
 package com.example.jpashop.modules.item;
 
+import com.example.jpashop.support.etag.VersionFingerprint;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 @RequiredArgsConstructor
 public class ItemRepository {
 
+    /**
+     * 재고 update의 동기화 공간
+     * - 네이티브 update에 Item을 동기화 대상으로 지정하면 Hibernate가 Item 리전 전체를 비운다. (주문마다)
+     *   엔티티와 연결되지 않은 공간을 지정해서 아무 리전도 비우지 않게 하고, 바뀐 상품만 evictItems()로 비운다.
+     * - 상품 조회는 쿼리 캐시를 쓰지 않으므로 item 공간의 쿼리 캐시 무효화는 필요 없다.
+     */
+    static final String STOCK_SPACE = "item_stock";
+
     private final EntityManager em;
+    private final VersionFingerprint versionFingerprint;
+
+    // 상품 버전 지문 -> 전체 상품 수 (지난 지문은 곧 쓰이지 않으므로 몇 개만 둔다)
+    private final LoadingCache<String, Long> counts = Caffeine.newBuilder().maximumSize(4).build(fingerprint -> countAll());
 
     public void save(Item item) {
         if(item.getId() == null) {
@@ -25,7 +49,156 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
-    public List<Item> findAll() {
-        return em.createQuery("select i from Item i", Item.class).getResultList();
+    /**
+     * 재고 차감 (조건부 update)
+     * - 재고가 충분할 때만 DB에서 바로 차감하므로 동시 주문에도 초과 판매(lost update)가 없고 락을 오래 잡지 않는다.
+     * - version도 올려서 엔티티로 재고를 바꾸는 쪽(낙관적 락)과 충돌을 감지할 수 있게 한다.
+     * - 벌크 연산이므로 영속성 컨텍스트의 item에는 반영되지 않는다. -> refresh
+     * - 2차 캐시는 이 상품만 비운다. (STOCK_SPACE)
+     * @return 변경된 row 수 (0이면 재고 부족)
+     */
+    public int removeStock(Long itemId, int quantity) {
+        em.flush();
+        int updated = em.createNativeQuery("update item" +
+                        " set stock_quantity = stock_quantity - :quantity, version = version + 1" +
+                        " where item_id = :id and stock_quantity >= :quantity")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(STOCK_SPACE)
+                .setParameter("quantity", quantity)
+                .setParameter("id", itemId)
+                .executeUpdate();
+        if (updated > 0) {
+            evictItems(List.of(itemId));
+        }
+        return updated;
+    }
+
+    /**
+     * 여러 상품 재고를 update 한 번으로 차감 (조건부 update)
+     * - 수량은 CASE로 상품마다 지정하고, 재고가 부족한 상품은 update 되지 않는다.
+     * - 2차 캐시는 주문한 상품만 비운다. (STOCK_SPACE)
+     * @return 변경된 row 수 (상품 수보다 적으면 재고가 부족한 상품이 있다)
+     */
+    public int removeStocks(Map<Long, Integer> quantities) {
+        em.flush();
+        StringBuilder quantityCase = new StringBuilder("case item_id");
+        for (int i = 0; i < quantities.size(); i++) {
+            quantityCase.append(" when :id").append(i).append(" then :quantity").append(i);
+        }
+        quantityCase.append(" end");
+
+        NativeQuery<?> query = em.createNativeQuery("update item" +
+                        " set stock_quantity = stock_quantity - " + quantityCase + ", version = version + 1" +
+                        " where item_id in (:ids) and stock_quantity >= " + quantityCase)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(STOCK_SPACE);
+
+        int index = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            query.setParameter("id" + index, entry.getKey());
+            query.setParameter("quantity" + index, entry.getValue());
+            index++;
+        }
+        query.setParameterList("ids", quantities.keySet());
+        int updated = query.executeUpdate();
+        evictItems(quantities.keySet());
+        return updated;
+    }
+
+    /**
+     * 주문 취소 재고 복구 (update 한 번)
+     * - 주문들에 포함된 상품마다 주문 수량 합계를 더한다. 같은 상품이 여러 주문에 있어도 row는 한 번만 update 된다.
+     * - 바뀔 상품 id를 먼저 조회해서 그 상품만 2차 캐시에서 비운다. (STOCK_SPACE)
+     * @return 변경된 상품 수
+     */
+    public int restoreStocks(Collection<Long> orderIds) {
+        em.flush();
+        List<Long> itemIds = em.createQuery("select distinct oi.item.id from OrderItem oi where oi.order.id in :orderIds", Long.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+        if (itemIds.isEmpty()) {
+            return 0;
+        }
+
+        int updated = em.createNativeQuery("update item" +
+                        " set stock_quantity = stock_quantity + (" +
+                        "   select sum(oi.count) from order_item oi" +
+                        "   where oi.item_id = item.item_id and oi.order_id in (:orderIds))," +
+                        " version = version + 1" +
+                        " where item_id in (:itemIds)")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(STOCK_SPACE)
+                .setParameterList("orderIds", orderIds)
+                .setParameterList("itemIds", itemIds)
+                .executeUpdate();
+        evictItems(itemIds);
+        return updated;
+    }
+
+    /**
+     * 재고를 바꾼 상품만 2차 캐시에서 비운다.
+     * - 커밋 전에 다른 트랜잭션이 이전 값을 다시 캐시할 수 있으므로 트랜잭션이 끝난 뒤에 한 번 더 비운다.
+     * - 벌크 update는 Hibernate 이벤트가 없으므로 조건부 GET 지문의 세대도 여기서 올린다. (같은 트랜잭션에서 커밋된다)
+     */
+    private void evictItems(Collection<Long> itemIds) {
+        versionFingerprint.changed(Item.class);
+        Cache cache = em.getEntityManagerFactory().getCache();
+        itemIds.forEach(id -> cache.evict(Item.class, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<Long> ids = List.copyOf(itemIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ids.forEach(id -> cache.evict(Item.class, id));
+                }
+            });
+        }
+    }
+
+    public void refresh(Item item) {
+        em.refresh(item);
+    }
+
+    public void detach(Item item) {
+        em.detach(item);
+    }
+
+    public List<Item> findAllById(Collection<Long> ids) {
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * 상품 목록 (페이징)
+     * - 페이지의 id만 먼저 정렬 컬럼 + id 인덱스에서 읽고(offset도 인덱스 안에서 건너뛴다), 그 id의 상품만 읽는다.
+     *   뒤쪽 페이지도 건너뛸 상품 row를 읽지 않는다.
+     * - 전체 상품 수는 상품 버전 지문(VersionFingerprint)마다 한 번만 센다. 상품이 바뀌지 않으면 count 쿼리를 다시 하지 않는다.
+     *   쓰기 트랜잭션에서는 커밋 전 변경이 섞일 수 있으므로 캐시하지 않는다.
+     */
+    public Page<Item> findAll(ItemSearch itemSearch) {
+        Pageable pageable = itemSearch.toPageable();
+        String orderBy = itemSearch.getSort().getOrderBy();
+        List<Long> ids = em.createQuery("select i.id from Item i order by " + orderBy, Long.class)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        List<Item> content = ids.isEmpty() ? List.of() :
+                em.createQuery("select i from Item i where i.id in :ids order by " + orderBy, Item.class)
+                        .setParameter("ids", ids)
+                        .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, this::count);
+    }
+
+    private long count() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return countAll();
+        }
+        return counts.get(versionFingerprint.of(Item.class));
+    }
+
+    private long countAll() {
+        return em.createQuery("select count(i) from Item i", Long.class).getSingleResult();
     }
 }
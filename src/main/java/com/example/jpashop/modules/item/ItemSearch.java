@@ -0,0 +1,21 @@
+package com.example.jpashop.modules.item;
+
+import lombok.Data;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+@Data
+public class ItemSearch {
+
+    private static final int MAX_SIZE = 100;
+
+    private ItemSort sort = ItemSort.ID;
+
+    // 페이지 (0부터), 페이지 크기
+    private int page;
+    private int size = 20;
+
+    public Pageable toPageable() {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_SIZE));
+    }
+}
@@ -1,36 +1,41 @@
 package com.example.jpashop.modules.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-
 @Service
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void saveItem(Item item) {
         itemRepository.save(item);
+        eventPublisher.publishEvent(new ItemChangedEvent(item.getId()));
     }
 
-    public List<Item> findItems() {
-        return itemRepository.findAll();
+    public Page<Item> findItems(ItemSearch itemSearch) {
+        return itemRepository.findAll(itemSearch);
     }
 
     public Item findOne(Long itemId) {
         return itemRepository.findOne(itemId);
     }
 
+    // 변경 감지로 수정 -> 커밋 시 2차 캐시 갱신, 커밋 후 상품 목록 캐시 비움
+    @Transactional
     public void updateItem(Long id, String name, int price, int stockQuantity) {
 
         Item item = itemRepository.findOne(id);
         item.setName(name);
         item.setPrice(price);
         item.setStockQuantity(stockQuantity);
+        eventPublisher.publishEvent(new ItemChangedEvent(id));
     }
 }
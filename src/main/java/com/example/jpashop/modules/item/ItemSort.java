@@ -0,0 +1,23 @@
+package com.example.jpashop.modules.item;
+
+/**
+ * 상품 목록 정렬
+ * - 정렬마다 (정렬 컬럼, item_id) 인덱스를 타도록 id를 마지막 정렬 기준으로 둔다. (Item 인덱스 참고)
+ */
+public enum ItemSort {
+
+    ID("i.id desc"),
+    NAME("i.name, i.id"),
+    PRICE("i.price, i.id"),
+    PRICE_DESC("i.price desc, i.id desc");
+
+    private final String orderBy;
+
+    ItemSort(String orderBy) {
+        this.orderBy = orderBy;
+    }
+
+    String getOrderBy() {
+        return orderBy;
+    }
+}
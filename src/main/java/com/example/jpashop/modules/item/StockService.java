@@ -0,0 +1,122 @@
+package com.example.jpashop.modules.item;
+
+import com.example.jpashop.exception.NotEnoughStockException;
+import com.example.jpashop.modules.orderItem.OrderItem;
+import com.example.jpashop.support.OptimisticRetry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 재고 차감
+ * - atomic(기본) : 조건부 update 한 번으로 차감한다. 같은 상품에 주문이 몰려도 초과 판매가 없다.
+ *   조건부 update가 락을 얻지 못하면(대기 시간 초과, 데드락) 트랜잭션이 롤백되고,
+ *   OptimisticRetry가 다시 실행할 때는 optimistic 방식으로 차감한다. (낙관적 락 대체 경로)
+ * - optimistic : 엔티티 변경 감지 + @Version, 충돌하면 OptimisticLockingFailureException
+ *   -> 호출하는 쪽에서 OptimisticRetry로 트랜잭션 전체를 재시도한다. (최대 jpashop.stock.retry.max-attempts번)
+ * - 두 방식 모두 재고가 부족하면 NotEnoughStockException
+ */
+@Service
+@Transactional(readOnly = true)
+public class StockService {
+
+    public enum Mode {
+        ATOMIC, OPTIMISTIC
+    }
+
+    private final ItemRepository itemRepository;
+    private final Mode mode;
+
+    public StockService(ItemRepository itemRepository,
+                        @Value("${jpashop.stock.reservation:atomic}") String mode) {
+        this.itemRepository = itemRepository;
+        this.mode = Mode.valueOf(mode.toUpperCase());
+    }
+
+    /**
+     * 재고를 차감하고 주문상품 생성
+     */
+    @Transactional
+    public OrderItem createOrderItem(Item item, int orderPrice, int count) {
+        if (optimistic()) {
+            return OrderItem.createOrderItem(item, orderPrice, count);
+        }
+
+        if (itemRepository.removeStock(item.getId(), count) == 0) {
+            throw new NotEnoughStockException("need more stock");
+        }
+        itemRepository.refresh(item);
+        return OrderItem.createReservedOrderItem(item, orderPrice, count);
+    }
+
+    /**
+     * 재고를 차감하고 주문상품 생성, 재고가 부족하면 예외 대신 null
+     * - 여러 주문을 트랜잭션 하나로 처리할 때 사용한다. (OrderService.orderAll)
+     *   @Transactional 메서드 밖으로 예외가 나가면 트랜잭션 전체가 rollback-only가 되어 다른 주문까지 롤백된다.
+     * - 차감 후 상품을 다시 읽지 않는다. (영속성 컨텍스트의 상품 재고는 차감 전 값)
+     */
+    @Transactional
+    public OrderItem tryCreateOrderItem(Item item, int orderPrice, int count) {
+        if (optimistic()) {
+            if (item.getStockQuantity() < count) {
+                return null;
+            }
+            return OrderItem.createOrderItem(item, orderPrice, count);
+        }
+
+        if (itemRepository.removeStock(item.getId(), count) == 0) {
+            return null;
+        }
+        return OrderItem.createReservedOrderItem(item, orderPrice, count);
+    }
+
+    /**
+     * 여러 상품 재고를 한번에 차감하고 주문상품 생성
+     * - 상품 조회(IN 쿼리 1번), 재고 차감(update 1번), 재조회(IN 쿼리 1번)로 상품 수와 무관하게 쿼리 수가 일정하다.
+     * @param quantities itemId -> 주문 수량
+     */
+    @Transactional
+    public List<OrderItem> createOrderItems(Map<Long, Integer> quantities) {
+        List<Item> items = itemRepository.findAllById(quantities.keySet());
+        if (items.size() != quantities.size()) {
+            throw new IllegalArgumentException("존재하지 않는 상품이 있습니다.");
+        }
+
+        if (optimistic()) {
+            return toOrderItems(items, quantities, true);
+        }
+
+        if (itemRepository.removeStocks(quantities) != quantities.size()) {
+            throw new NotEnoughStockException("need more stock");
+        }
+        // 벌크 연산 전에 읽은 상품은 재고/버전이 오래된 값이므로 분리하고 다시 조회한다.
+        items.forEach(itemRepository::detach);
+        return toOrderItems(itemRepository.findAllById(quantities.keySet()), quantities, false);
+    }
+
+    // 조건부 update가 락 때문에 실패해서 재시도 중이면 낙관적 락으로 차감한다.
+    private boolean optimistic() {
+        return mode == Mode.OPTIMISTIC || OptimisticRetry.isRetrying();
+    }
+
+    // 요청한 상품 순서대로 주문상품 생성
+    private List<OrderItem> toOrderItems(List<Item> items, Map<Long, Integer> quantities, boolean removeStock) {
+        Map<Long, Item> itemMap = items.stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        List<OrderItem> orderItems = new ArrayList<>(quantities.size());
+        quantities.forEach((itemId, count) -> {
+            Item item = itemMap.get(itemId);
+            orderItems.add(removeStock
+                    ? OrderItem.createOrderItem(item, item.getPrice(), count)
+                    : OrderItem.createReservedOrderItem(item, item.getPrice(), count));
+        });
+        return orderItems;
+    }
+}
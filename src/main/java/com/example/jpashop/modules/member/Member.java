@@ -1,19 +1,26 @@
 package com.example.jpashop.modules.member;
 
+import com.example.jpashop.config.HibernateCacheConfiguration;
 import com.example.jpashop.modules.order.Order;
+import com.example.jpashop.support.PooledSequenceGenerator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_member_name", columnNames = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfiguration.MEMBER_REGION)
 @Getter @Setter
 public class Member {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(generator = PooledSequenceGenerator.NAME)
     @Column(name = "member_id")
     private Long id;
     private String name;
@@ -21,6 +28,9 @@ public class Member {
     @Embedded
     private Address address;
 
+    @Version
+    private Long version;
+
     // @JsonIgnore
     @OneToMany(mappedBy = "member")
     private List<Order> orders = new ArrayList<>();
@@ -0,0 +1,94 @@
+package com.example.jpashop.modules.member;
+
+import com.example.jpashop.support.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 회원 이름 Bloom 필터
+ * - 회원가입 시 처음 보는 이름이면 중복 조회 쿼리를 건너뛴다.
+ * - 정확성은 member.name 유니크 인덱스가 보장한다. 필터는 조회를 줄이는 용도일 뿐이다.
+ *   (다른 서버에서 가입한 이름은 이 필터에 없으므로 유니크 인덱스에서 걸러진다)
+ * - 애플리케이션이 뜰 때 전체 이름으로 채우고, 채우기 전에는 항상 "있을 수도 있음"으로 답한다.
+ */
+@Slf4j
+@Component
+public class MemberNameFilter {
+
+    private final MemberRepository memberRepository;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double fpp;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter warming;
+    private volatile boolean ready;
+
+    public MemberNameFilter(MemberRepository memberRepository,
+                            @Value("${jpashop.member.name-filter.enabled:true}") boolean enabled,
+                            @Value("${jpashop.member.name-filter.expected-insertions:2000000}") long expectedInsertions,
+                            @Value("${jpashop.member.name-filter.fpp:0.01}") double fpp) {
+        this.memberRepository = memberRepository;
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.filter = new BloomFilter(expectedInsertions, fpp);
+    }
+
+    public boolean mightContain(String name) {
+        return !enabled || !ready || filter.mightContain(name);
+    }
+
+    public void put(String name) {
+        if (enabled) {
+            filter.put(name);
+            BloomFilter next = warming;
+            if (next != null) {
+                next.put(name);
+            }
+        }
+    }
+
+    /**
+     * 전체 회원 이름으로 필터를 새로 채운다.
+     * - 채우는 동안 가입한 이름은 put()으로 기존 필터에 들어가므로 새 필터에도 넣는다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        BloomFilter next = new BloomFilter(expectedInsertions, fpp);
+        warming = next;
+
+        long count = 0;
+        try (Stream<String> names = memberRepository.streamAllNames()) {
+            Iterator<String> iterator = names.iterator();
+            while (iterator.hasNext()) {
+                String name = iterator.next();
+                if (name != null) {
+                    next.put(name);
+                    count++;
+                }
+            }
+        }
+        filter = next;
+        warming = null;
+        ready = true;
+
+        log.info("member name filter warmed up. names={}, bits={}, hashes={}, {}ms",
+                count, next.bitSize(), next.hashFunctions(), System.currentTimeMillis() - start);
+        if (count > expectedInsertions) {
+            log.warn("회원 수({})가 필터 예상 크기({})를 넘어서 오탐률이 높습니다.", count, expectedInsertions);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.jpashop.modules.member;
+
+import com.example.jpashop.support.LongObjectMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * 회원 이름 부분 검색용 trigram 역색인 (메모리)
+ * - like '%name%'은 B-tree 인덱스를 못 타므로, 이름의 3글자 조각마다 회원 id 목록을 만들어 둔다.
+ * - 검색어 조각 중 가장 짧은 id 목록만 훑고, 실제 이름에 검색어가 들어있는지 확인해서 정확한 결과만 돌려준다.
+ *   (이름이 바뀌어서 남은 예전 조각도 여기서 걸러진다)
+ * - 3글자 미만 검색어는 메모리의 전체 이름을 훑는다.
+ * - 애플리케이션이 뜰 때 채우고 가입/이름 변경 시 갱신한다. 다른 서버에서 바뀐 이름은 재시작 전까지 반영되지 않는다.
+ */
+@Slf4j
+@Component
+public class MemberNameIndex {
+
+    private static final int GRAM = 3;
+
+    private final MemberRepository memberRepository;
+    private final boolean enabled;
+    private final int maxCandidates;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final LongObjectMap<String> names = new LongObjectMap<>();
+    private volatile boolean ready;
+
+    public MemberNameIndex(MemberRepository memberRepository,
+                           @Value("${jpashop.member.name-index.enabled:true}") boolean enabled,
+                           @Value("${jpashop.member.name-index.max-candidates:1000}") int maxCandidates) {
+        this.memberRepository = memberRepository;
+        this.enabled = enabled;
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * 이름에 query가 들어있는 회원 id (오름차순)
+     * @return 색인을 쓸 수 없으면 null (준비 전, 비활성, 결과가 max-candidates보다 많음) -> DB에서 검색
+     */
+    public long[] search(String query) {
+        if (!enabled || !ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            return query.length() < GRAM ? scan(query) : lookup(query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Long memberId, String name) {
+        if (!enabled || memberId == null || name == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            index(memberId, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int count = 0;
+        try (Stream<Object[]> members = memberRepository.streamAllIdAndNames()) {
+            Iterator<Object[]> iterator = members.iterator();
+            while (iterator.hasNext()) {
+                Object[] member = iterator.next();
+                put((Long) member[0], (String) member[1]);
+                count++;
+            }
+        }
+        ready = true;
+
+        log.info("member name index warmed up. members={}, grams={}, {}ms",
+                count, postings.size(), System.currentTimeMillis() - start);
+    }
+
+    private void index(long memberId, String name) {
+        names.put(memberId, name);
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            postings.computeIfAbsent(name.substring(i, i + GRAM), gram -> new Postings()).add(memberId);
+        }
+    }
+
+    private long[] lookup(String query) {
+        Postings shortest = null;
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            Postings candidates = postings.get(query.substring(i, i + GRAM));
+            if (candidates == null) {
+                return new long[0];
+            }
+            if (shortest == null || candidates.size < shortest.size) {
+                shortest = candidates;
+            }
+        }
+
+        Matches matches = new Matches();
+        for (int i = 0; i < shortest.size; i++) {
+            long memberId = shortest.ids[i];
+            if (names.get(memberId).contains(query) && !matches.add(memberId, maxCandidates)) {
+                return null;
+            }
+        }
+        return matches.toSortedDistinct();
+    }
+
+    private long[] scan(String query) {
+        Matches matches = new Matches();
+        boolean[] overflow = {false};
+        names.forEach((memberId, name) -> {
+            if (!overflow[0] && name.contains(query) && !matches.add(memberId, maxCandidates)) {
+                overflow[0] = true;
+            }
+        });
+        return overflow[0] ? null : matches.toSortedDistinct();
+    }
+
+    private static class Postings {
+        long[] ids = new long[4];
+        int size;
+
+        void add(long id) {
+            // 같은 이름 안에서 반복되는 조각 ("aaaa")
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size << 1);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    private static class Matches {
+        long[] ids = new long[16];
+        int size;
+
+        boolean add(long id, int max) {
+            if (size == max) {
+                return false;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size << 1);
+            }
+            ids[size++] = id;
+            return true;
+        }
+
+        long[] toSortedDistinct() {
+            long[] sorted = Arrays.copyOf(ids, size);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            return Arrays.copyOf(sorted, distinct);
+        }
+    }
+}
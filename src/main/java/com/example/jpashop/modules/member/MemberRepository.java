@@ -1,14 +1,18 @@
 package com.example.jpashop.modules.member;
 
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public class MemberRepository {
 
+    private static final int STREAM_FETCH_SIZE = 1000;
+
     // 영속성 컨텍스트
     @PersistenceContext
     EntityManager em;
@@ -23,7 +27,9 @@ public class MemberRepository {
     }
 
     public List<Member> findAll() {
-        return em.createQuery("select m from Member m", Member.class).getResultList();
+        return em.createQuery("select m from Member m", Member.class)
+                .setHint(QueryHints.CACHEABLE, true)
+                .getResultList();
     }
 
     public List<Member> findByName(String name) {
@@ -32,4 +38,52 @@ public class MemberRepository {
                 .getResultList();
     }
 
+    /**
+     * 가입 시 중복 확인용 (유니크 인덱스만 읽는다)
+     */
+    public boolean existsByName(String name) {
+        return !em.createQuery("select m.id from Member m where m.name = :name", Long.class)
+                .setParameter("name", name)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * 저장하고 바로 insert를 실행한다.
+     * - 유니크 제약 위반을 커밋 시점이 아니라 호출한 자리에서 DataIntegrityViolationException으로 받기 위해 사용
+     */
+    public Long saveAndFlush(Member member) {
+        em.persist(member);
+        em.flush();
+        return member.getId();
+    }
+
+    /**
+     * 변경 내용을 바로 update로 실행한다. (유니크 제약 위반을 호출한 자리에서 받기 위해 사용)
+     */
+    public void flush() {
+        em.flush();
+    }
+
+    /**
+     * 전체 회원 [id, 이름] (트랜잭션 안에서 사용하고 닫아야 한다)
+     */
+    public Stream<Object[]> streamAllIdAndNames() {
+        return em.createQuery("select m.id, m.name from Member m", Object[].class)
+                .setHint(QueryHints.FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream();
+    }
+
+    /**
+     * 전체 회원 이름 (트랜잭션 안에서 사용하고 닫아야 한다)
+     */
+    public Stream<String> streamAllNames() {
+        return em.createQuery("select m.name from Member m", String.class)
+                .setHint(QueryHints.FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream();
+    }
+
 }
@@ -1,8 +1,12 @@
 package com.example.jpashop.modules.member;
 
+import com.example.jpashop.modules.order.OrderSummaryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 
@@ -12,22 +16,31 @@ import java.util.List;
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final OrderSummaryService orderSummaryService;
+    private final MemberNameFilter memberNameFilter;
+    private final MemberNameIndex memberNameIndex;
 
     /**
      * 회원가입
+     * - 필터에 없는 이름은 중복 조회 없이 바로 저장한다.
+     * - 동시에 같은 이름으로 가입하면 둘 다 조회를 통과할 수 있으므로 유니크 인덱스 위반도 중복으로 처리한다.
      */
     @Transactional
     public Long join(Member member) {
 
-        validateDuplicateMember(member);
+        validateDuplicateName(member.getName());
 
-        memberRepository.save(member);
+        try {
+            memberRepository.saveAndFlush(member);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+        putNameAfterCommit(member.getId(), member.getName());
         return member.getId();
     }
 
-    private void validateDuplicateMember(Member member) {
-        List<Member> findMembers = memberRepository.findByName(member.getName());
-        if (!findMembers.isEmpty()) {
+    private void validateDuplicateName(String name) {
+        if (memberNameFilter.mightContain(name) && memberRepository.existsByName(name)) {
             throw new IllegalStateException("이미 존재하는 회원입니다.");
         }
     }
@@ -46,9 +59,44 @@ public class MemberService {
         return memberRepository.findOne(memberId);
     }
 
+    /**
+     * 회원 이름 변경
+     * - 가입과 같이 중복 이름을 확인하고, 유니크 인덱스 위반도 중복으로 처리한다.
+     */
     @Transactional
     public void update(Long id, String name) {
         Member member = memberRepository.findOne(id);
+        if (name.equals(member.getName())) {
+            return;
+        }
+        validateDuplicateName(name);
+
         member.setName(name);
+        try {
+            memberRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("이미 존재하는 회원입니다.", e);
+        }
+        putNameAfterCommit(id, name);
+        orderSummaryService.changeMemberName(id, name);
+    }
+
+    /**
+     * 커밋된 이름만 필터와 검색 인덱스에 넣는다.
+     * - 롤백된 가입/변경이 인덱스에 남아 검색되지 않도록 커밋 후에 반영한다.
+     */
+    private void putNameAfterCommit(Long id, String name) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            memberNameFilter.put(name);
+            memberNameIndex.put(id, name);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                memberNameFilter.put(name);
+                memberNameIndex.put(id, name);
+            }
+        });
     }
 }
@@ -0,0 +1,30 @@
+package com.example.jpashop.modules.order;
+
+import com.example.jpashop.modules.delivery.DeliveryStatus;
+import com.example.jpashop.modules.member.Address;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+
+/**
+ * 보관 주문의 배송 (delivery와 같은 컬럼)
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(name = "delivery_archive")
+public class ArchivedDelivery {
+
+    @Id
+    private Long id;
+
+    @Embedded
+    private Address address;
+
+    @Enumerated(EnumType.STRING)
+    private DeliveryStatus status;
+}
@@ -0,0 +1,48 @@
+package com.example.jpashop.modules.order;
+
+import com.example.jpashop.modules.member.Member;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 보관(cold) 주문
+ * - 완료/취소된 지 오래된 주문을 orders에서 옮겨 둔다. (OrderArchiver)
+ * - orders와 같은 컬럼 + 보관 시각, 옮긴 뒤에는 바뀌지 않는다.
+ * - 기본 조회는 orders만 읽고, 보관 주문까지 필요한 조회만 이 테이블을 합친다.
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_orders_archive_order_date_id", columnList = "orderDate, order_id"),
+        @Index(name = "idx_orders_archive_member_status", columnList = "member_id, status, order_id")
+})
+public class ArchivedOrder {
+
+    @Id
+    @Column(name = "order_id")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "member_id")
+    private Member member;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "delivery_id")
+    private ArchivedDelivery delivery;
+
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    private Long version;
+
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,47 @@
+package com.example.jpashop.modules.order;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 일별 판매 카운터 (주문일 기준, 취소된 주문 제외)
+ * - 주문/취소 트랜잭션에서 증감하므로 대시보드가 order_item을 스캔하지 않는다. (SalesService)
+ * - 하루를 STRIPES개의 row로 나눈다. 모든 주문이 같은 row를 update하면 row 락 때문에 주문 트랜잭션이 한 줄로 서게 된다.
+ *   조회할 때 날짜별로 합친다.
+ * - 언제든 SalesService.rebuildDailySales()로 다시 만들 수 있다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@IdClass(DailySales.Key.class)
+@Table(name = "daily_sales")
+public class DailySales {
+
+    static final int STRIPES = 8;
+
+    @Id
+    private LocalDate salesDate;
+
+    @Id
+    private int stripe;
+
+    private long orderCount;
+    private long quantity;   // 판매 수량 (order_item.count 합계)
+    private long amount;     // 판매 금액 (order_price * count 합계)
+
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate salesDate;
+        private int stripe;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.jpashop.modules.order;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class DailySalesDto {
+
+    private LocalDate date;
+    private long orderCount;
+    private long quantity;
+    private long amount;
+
+    public DailySalesDto(LocalDate date, Long orderCount, Long quantity, Long amount) {
+        this.date = date;
+        this.orderCount = orderCount != null ? orderCount : 0;
+        this.quantity = quantity != null ? quantity : 0;
+        this.amount = amount != null ? amount : 0;
+    }
+
+    void add(long orderCount, long quantity, long amount) {
+        this.orderCount += orderCount;
+        this.quantity += quantity;
+        this.amount += amount;
+    }
+}
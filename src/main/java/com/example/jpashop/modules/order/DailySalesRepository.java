@@ -0,0 +1,100 @@
+package com.example.jpashop.modules.order;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class DailySalesRepository {
+
+    private final EntityManager em;
+
+    /**
+     * 카운터 증감 (벌크 연산)
+     * @return 변경된 row 수 (0이면 해당 날짜/stripe의 row가 아직 없다)
+     */
+    public int add(LocalDate salesDate, int stripe, long orderCount, long quantity, long amount) {
+        return em.createQuery("update DailySales s" +
+                        " set s.orderCount = s.orderCount + :orderCount," +
+                        " s.quantity = s.quantity + :quantity," +
+                        " s.amount = s.amount + :amount" +
+                        " where s.salesDate = :salesDate and s.stripe = :stripe")
+                .setParameter("orderCount", orderCount)
+                .setParameter("quantity", quantity)
+                .setParameter("amount", amount)
+                .setParameter("salesDate", salesDate)
+                .setParameter("stripe", stripe)
+                .executeUpdate();
+    }
+
+    /**
+     * 0으로 초기화된 row가 없으면 만든다. (호출한 주문 트랜잭션 안에서, 같은 커넥션)
+     * - 동시에 같은 row를 만들면 한쪽은 키 중복으로 실패한다. 세이브포인트까지만 되돌리므로 주문 트랜잭션은 계속 진행한다.
+     * - JDBC로 직접 실행한다. Hibernate를 거치면 예외가 나는 순간 트랜잭션이 rollback-only가 된다.
+     * - 별도 트랜잭션(REQUIRES_NEW)은 주문마다 커넥션을 하나 더 잡으므로 쓰지 않는다.
+     */
+    public void createIfAbsent(LocalDate salesDate, int stripe) {
+        em.unwrap(Session.class).doWork(connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "insert into daily_sales (sales_date, stripe, order_count, quantity, amount) values (?, ?, 0, 0, 0)")) {
+                insert.setObject(1, salesDate);
+                insert.setInt(2, stripe);
+                insert.executeUpdate();
+                connection.releaseSavepoint(savepoint);
+            } catch (SQLException e) {
+                connection.rollback(savepoint);
+                // 무결성 제약 위반(SQLState 23xxx)은 다른 트랜잭션이 먼저 만든 것이다.
+                if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                    throw e;
+                }
+            }
+        });
+    }
+
+    // 날짜별로 stripe를 합친다.
+    public List<DailySalesDto> findAll(LocalDate from, LocalDate to) {
+        return em.createQuery(
+                "select new com.example.jpashop.modules.order.DailySalesDto(s.salesDate, sum(s.orderCount), sum(s.quantity), sum(s.amount))" +
+                        " from DailySales s" +
+                        " where s.salesDate between :from and :to" +
+                        " group by s.salesDate" +
+                        " order by s.salesDate", DailySalesDto.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+
+    public int deleteAll() {
+        return em.createQuery("delete from DailySales").executeUpdate();
+    }
+
+    // 취소되지 않은 주문 전체(보관 주문 포함)를 주문일로 묶어서 stripe 0에 넣는다.
+    public int insertAllFromOrders() {
+        return em.createNativeQuery(
+                "insert into daily_sales (sales_date, stripe, order_count, quantity, amount)" +
+                        " select cast(s.order_date as date), 0, count(distinct s.order_id), sum(s.count), sum(s.order_price * s.count)" +
+                        " from (" +
+                        "   select o.order_id, o.order_date, oi.count, oi.order_price from orders o" +
+                        "   join order_item oi on oi.order_id = o.order_id" +
+                        "   where o.status = 'ORDER'" +
+                        "   union all" +
+                        "   select o.order_id, o.order_date, oi.count, oi.order_price from orders_archive o" +
+                        "   join order_item_archive oi on oi.order_id = o.order_id" +
+                        "   where o.status = 'ORDER'" +
+                        " ) s" +
+                        " group by cast(s.order_date as date)")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(DailySales.class)
+                .executeUpdate();
+    }
+}
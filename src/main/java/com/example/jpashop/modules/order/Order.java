@@ -4,6 +4,7 @@ import com.example.jpashop.modules.delivery.Delivery;
 import com.example.jpashop.modules.delivery.DeliveryStatus;
 import com.example.jpashop.modules.member.Member;
 import com.example.jpashop.modules.orderItem.OrderItem;
+import com.example.jpashop.support.PooledSequenceGenerator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
@@ -15,10 +16,13 @@ import java.util.List;
 
 @Entity
 @Getter @Setter
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date_id", columnList = "orderDate, order_id"),
+        @Index(name = "idx_orders_member_status", columnList = "member_id, status, order_id")
+})
 public class Order {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(generator = PooledSequenceGenerator.NAME)
     @Column(name = "order_id")
     private Long id;
 
@@ -40,6 +44,9 @@ public class Order {
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
 
+    @Version
+    private Long version;
+
 
     public void setMember(Member member) {
         this.member = member;
@@ -80,7 +87,7 @@ public class Order {
         }
     }
 
-    // 전체 주문 가격 조회
+    // 전체 주문 가격 조회 (orderItems를 로딩한다. 여러 주문은 SalesQueryRepository.findTotalPrices로 DB에서 합산)
     public int getTotalPrice() {
         int totalPrice = 0;
         for(OrderItem orderItem : orderItems) {
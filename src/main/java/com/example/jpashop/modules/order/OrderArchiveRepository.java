@@ -0,0 +1,133 @@
+package com.example.jpashop.modules.order;
+
+import com.example.jpashop.modules.delivery.Delivery;
+import com.example.jpashop.modules.delivery.DeliveryStatus;
+import com.example.jpashop.modules.orderItem.OrderItem;
+import com.example.jpashop.support.etag.VersionFingerprint;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 주문 보관 테이블 (orders_archive, order_item_archive, delivery_archive)
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderArchiveRepository {
+
+    // 보관 주문 금액
+    static final String TOTAL_PRICE = "(select sum(toi.orderPrice * toi.count) from ArchivedOrderItem toi where toi.order = o)";
+
+    // 보관 주문의 주문상품 (InQueryBatchLoader, :ids)
+    static final String ORDER_ITEMS = "select new com.example.jpashop.modules.order.OrderItemQueyDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+            " from ArchivedOrderItem oi" +
+            " join oi.item i" +
+            " where oi.order.id in :ids";
+
+    private final EntityManager em;
+    private final VersionFingerprint versionFingerprint;
+
+    /**
+     * 보관 대상 주문 id (afterId 다음부터 id 순서로 limit개)
+     * - cutoff 이전 주문 중 취소됐거나 배송이 끝난 주문. 더 바뀔 수 없는 상태만 옮긴다.
+     */
+    public List<Long> findArchivableIds(LocalDateTime cutoff, long afterId, int limit) {
+        return em.createQuery("select o.id from Order o" +
+                        " join o.delivery d" +
+                        " where o.id > :afterId and o.orderDate < :cutoff" +
+                        " and (o.status = :cancel or d.status = :comp)" +
+                        " order by o.id", Long.class)
+                .setParameter("afterId", afterId)
+                .setParameter("cutoff", cutoff)
+                .setParameter("cancel", OrderStatus.CANCEL)
+                .setParameter("comp", DeliveryStatus.COMP)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 주문, 주문상품, 배송을 보관 테이블로 옮긴다. (insert ... select 후 delete, 같은 트랜잭션)
+     * - 주문 요약(order_summary)에서도 뺀다. 일별 판매 카운터는 그대로 둔다.
+     * - 네이티브 쿼리라 Hibernate 이벤트가 없으므로 조건부 GET 지문을 직접 바꾼다.
+     * @return 옮긴 주문 수
+     */
+    public int moveAll(List<Long> orderIds, LocalDateTime archivedAt) {
+        versionFingerprint.changed(Order.class);
+        execute("insert into delivery_archive (id, city, street, zipcode, status)" +
+                " select d.id, d.city, d.street, d.zipcode, d.status" +
+                " from delivery d join orders o on o.delivery_id = d.id" +
+                " where o.order_id in (:orderIds)", orderIds, ArchivedDelivery.class);
+        int moved = em.createNativeQuery("insert into orders_archive (order_id, member_id, delivery_id, order_date, status, version, archived_at)" +
+                        " select o.order_id, o.member_id, o.delivery_id, o.order_date, o.status, o.version, :archivedAt" +
+                        " from orders o where o.order_id in (:orderIds)")
+                .setParameter("archivedAt", archivedAt)
+                .setParameter("orderIds", orderIds)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(ArchivedOrder.class)
+                .executeUpdate();
+        execute("insert into order_item_archive (order_item_id, item_id, order_id, order_price, count)" +
+                " select oi.order_item_id, oi.item_id, oi.order_id, oi.order_price, oi.count" +
+                " from order_item oi where oi.order_id in (:orderIds)", orderIds, ArchivedOrderItem.class);
+
+        execute("delete from order_item where order_id in (:orderIds)", orderIds, OrderItem.class);
+        execute("delete from order_summary where order_id in (:orderIds)", orderIds, OrderSummary.class);
+        execute("delete from orders where order_id in (:orderIds)", orderIds, Order.class);
+        execute("delete from delivery where id in (select a.delivery_id from orders_archive a where a.order_id in (:orderIds))",
+                orderIds, Delivery.class);
+        return moved;
+    }
+
+    // 네이티브 쿼리가 바꾸는 엔티티만 알려준다. (알려주지 않으면 2차 캐시 전체가 무효화된다.)
+    private int execute(String sql, List<Long> orderIds, Class<?> entityClass) {
+        return em.createNativeQuery(sql)
+                .setParameter("orderIds", orderIds)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(entityClass)
+                .executeUpdate();
+    }
+
+    // 키셋 페이징 (OrderQueryRepository와 같은 커서)
+    public List<OrderQueryDto> findOrderQueryDtos(OrderCursor cursor, int limit) {
+        return cursor.bind(em.createQuery("select new com.example.jpashop.modules.order.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address, " + TOTAL_PRICE + ")" +
+                                " from ArchivedOrder o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                cursor.toWhereClause("o") +
+                                cursor.toOrderByClause("o"), OrderQueryDto.class))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // 주문 검색 (OrderSummaryRepository.findAll과 같은 조건)
+    public List<OrderSimpleQueryDto> findAll(OrderSearch orderSearch, int limit) {
+
+        String jpql = "select new com.example.jpashop.modules.order.OrderSimpleQueryDto(o.id, m.name, o.orderDate, o.status, d.address, " + TOTAL_PRICE + ")" +
+                " from ArchivedOrder o" +
+                " join o.member m" +
+                " join o.delivery d" +
+                " where 1 = 1";
+        if (orderSearch.getOrderStatus() != null) {
+            jpql += " and o.status = :status";
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            jpql += " and m.name like :name escape '\\'";
+        }
+        jpql += " order by o.id";
+
+        TypedQuery<OrderSimpleQueryDto> query = em.createQuery(jpql, OrderSimpleQueryDto.class)
+                .setMaxResults(limit);
+        if (orderSearch.getOrderStatus() != null) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            query.setParameter("name", OrderSummaryRepository.prefixPattern(orderSearch.getMemberName()));
+        }
+        return query.getResultList();
+    }
+}
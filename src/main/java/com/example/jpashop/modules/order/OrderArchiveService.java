@@ -0,0 +1,32 @@
+package com.example.jpashop.modules.order;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 주문 보관의 트랜잭션 단위 (OrderArchiver가 호출)
+ * - 청크 하나 = 트랜잭션 하나
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class OrderArchiveService {
+
+    private final OrderArchiveRepository orderArchiveRepository;
+
+    /**
+     * afterId 다음의 보관 대상 주문 chunkSize개를 옮긴다.
+     * @return 옮긴 주문 id (id 순서), 비어 있으면 끝
+     */
+    public List<Long> archiveChunk(LocalDateTime cutoff, long afterId, int chunkSize) {
+        List<Long> orderIds = orderArchiveRepository.findArchivableIds(cutoff, afterId, chunkSize);
+        if (!orderIds.isEmpty()) {
+            orderArchiveRepository.moveAll(orderIds, LocalDateTime.now());
+        }
+        return orderIds;
+    }
+}
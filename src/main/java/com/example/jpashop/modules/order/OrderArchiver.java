@@ -0,0 +1,54 @@
+package com.example.jpashop.modules.order;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 주문 보관 (hot/cold 분리)
+ * - 주문일이 retention-days보다 오래됐고 취소됐거나 배송이 끝난 주문을 orders_archive, order_item_archive,
+ *   delivery_archive로 옮긴다. orders 쪽 테이블과 인덱스가 최근 주문 크기로 유지되므로 기본 조회는 보관 주문을 읽지 않는다.
+ * - 보관 주문까지 필요한 조회는 archived=true로 요청한다. (OrderQueryRepository, OrderSummaryService)
+ * - chunk-size개씩 트랜잭션을 나눠서 옮긴다. 옮긴 주문은 orders에서 사라지므로 중간에 멈춰도 다시 실행하면 남은 주문부터 이어서 옮긴다.
+ * - 일별 판매 카운터는 보관 주문까지 포함한다. 상품별/회원별 판매 집계(SalesQueryRepository)는 orders만 읽는다.
+ */
+@Slf4j
+@Component
+public class OrderArchiver {
+
+    private final OrderArchiveService orderArchiveService;
+    private final int retentionDays;
+    private final int chunkSize;
+
+    public OrderArchiver(OrderArchiveService orderArchiveService,
+                         @Value("${jpashop.order.archive.retention-days:365}") int retentionDays,
+                         @Value("${jpashop.order.archive.chunk-size:500}") int chunkSize) {
+        this.orderArchiveService = orderArchiveService;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+    }
+
+    // retention-days 이전 주문을 보관한다.
+    public long archive() {
+        return archive(LocalDate.now().minusDays(retentionDays).atStartOfDay());
+    }
+
+    // cutoff 이전 주문을 보관한다.
+    public long archive(LocalDateTime cutoff) {
+        long start = System.currentTimeMillis();
+        long archived = 0;
+        long lastId = 0;
+        List<Long> chunk;
+        while (!(chunk = orderArchiveService.archiveChunk(cutoff, lastId, chunkSize)).isEmpty()) {
+            archived += chunk.size();
+            lastId = chunk.get(chunk.size() - 1);
+            log.debug("orders archived. chunk={}, total={}, lastId={}", chunk.size(), archived, lastId);
+        }
+        log.info("orders archived. cutoff={}, orders={}, {}ms", cutoff, archived, System.currentTimeMillis() - start);
+        return archived;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.jpashop.modules.order;
+
+/**
+ * 주문 일괄 취소 결과 (주문별)
+ */
+public enum OrderCancelResult {
+    CANCELLED,          // 취소됨
+    ALREADY_CANCELLED,  // 이미 취소된 주문
+    DELIVERED,          // 배송 완료라 취소 불가
+    NOT_FOUND           // 없는 주문
+}
@@ -0,0 +1,35 @@
+package com.example.jpashop.modules.order;
+
+import lombok.Getter;
+
+/**
+ * 주문 요청 한 건 (그룹 커밋용)
+ * - OrderService.orderAll()이 처리 결과(주문 id 또는 실패 원인)를 채운다.
+ * - 결과는 트랜잭션이 커밋된 뒤에만 유효하다.
+ */
+@Getter
+public class OrderCommand {
+
+    private final Long memberId;
+    private final Long itemId;
+    private final int count;
+
+    private Long orderId;
+    private RuntimeException failure;
+
+    public OrderCommand(Long memberId, Long itemId, int count) {
+        this.memberId = memberId;
+        this.itemId = itemId;
+        this.count = count;
+    }
+
+    void succeed(Long orderId) {
+        this.orderId = orderId;
+        this.failure = null;
+    }
+
+    void fail(RuntimeException failure) {
+        this.orderId = null;
+        this.failure = failure;
+    }
+}
@@ -1,15 +1,19 @@
 package com.example.jpashop.modules.order;
 
 import com.example.jpashop.modules.item.Item;
+import com.example.jpashop.modules.item.ItemSearch;
 import com.example.jpashop.modules.item.ItemService;
 import com.example.jpashop.modules.member.Member;
 import com.example.jpashop.modules.member.MemberService;
+import com.example.jpashop.support.OptimisticRetry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Controller
 @RequiredArgsConstructor
@@ -18,12 +22,14 @@ public class OrderController {
     private final OrderService orderService;
     private final MemberService memberService;
     private final ItemService itemService;
+    private final OptimisticRetry optimisticRetry;
+    private final OrderIntake orderIntake;
 
     @GetMapping("/order")
-    public String createForm(Model model) {
+    public String createForm(@ModelAttribute("itemSearch") ItemSearch itemSearch, Model model) {
 
         List<Member> members = memberService.findMembers();
-        List<Item> items = itemService.findItems();
+        Page<Item> items = itemService.findItems(itemSearch);
 
         model.addAttribute("members", members);
         model.addAttribute("items", items);
@@ -31,12 +37,17 @@ public class OrderController {
         return "order/orderForm";
     }
 
+    /**
+     * 주문
+     * - 접수 방식(jpashop.order.intake.mode)에 따라 바로 저장하거나 그룹 커밋 큐에 넣는다.
+     * - 비동기 요청으로 처리되므로 커밋을 기다리는 동안 요청 스레드를 점유하지 않는다.
+     */
     @PostMapping("/order")
-    public String order(@RequestParam("memberId") Long memberId,
-                        @RequestParam("itemId") Long itemId, @RequestParam("count") int count) {
+    public CompletableFuture<String> order(@RequestParam("memberId") Long memberId,
+                                           @RequestParam("itemId") Long itemId, @RequestParam("count") int count) {
 
-        orderService.order(memberId, itemId, count);
-        return "redirect:/orders";
+        return orderIntake.submit(memberId, itemId, count)
+                .thenApply(orderId -> "redirect:/orders");
     }
 
     /**
@@ -45,7 +56,7 @@ public class OrderController {
     @GetMapping("/orders")
     public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch, Model model) {
 
-        List<Order> orders = orderService.findOrders(orderSearch);
+        Page<Order> orders = orderService.findOrders(orderSearch);
         model.addAttribute("orders", orders);
 
         return "order/orderList";
@@ -53,7 +64,7 @@ public class OrderController {
 
     @PostMapping("/orders/{orderId}/cancel")
     public String cancelOrder(@PathVariable("orderId") Long orderId) {
-        orderService.cancelOrder(orderId);
+        optimisticRetry.execute(() -> orderService.cancelOrder(orderId));
         return "redirect:/orders";
     }
 }
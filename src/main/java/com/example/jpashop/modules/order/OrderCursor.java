@@ -0,0 +1,123 @@
+package com.example.jpashop.modules.order;
+
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.TypedQuery;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * 키셋(커서) 페이징 위치
+ * - offset 페이징은 건너뛴 row를 DB가 모두 읽고 버리므로 뒤 페이지로 갈수록 느려진다.
+ * - 마지막으로 조회한 (orderDate, orderId) 다음부터 인덱스를 타고 조회하므로 페이지 깊이와 무관하게 일정한 비용이 든다.
+ * - 클라이언트에는 인코딩된 불투명(opaque) 문자열로만 전달한다.
+ */
+@Getter
+public class OrderCursor {
+
+    public enum Sort {
+        ID, DATE
+    }
+
+    private static final String DELIMITER = "|";
+
+    private final Sort sort;
+    private final Long orderId;
+    private final LocalDateTime orderDate;
+
+    private OrderCursor(Sort sort, Long orderId, LocalDateTime orderDate) {
+        this.sort = sort;
+        this.orderId = orderId;
+        this.orderDate = orderDate;
+    }
+
+    public static OrderCursor first(Sort sort) {
+        return new OrderCursor(sort, null, null);
+    }
+
+    public boolean isFirst() {
+        return orderId == null;
+    }
+
+    // 마지막으로 조회한 주문 다음 위치
+    public OrderCursor next(Long lastOrderId, LocalDateTime lastOrderDate) {
+        return new OrderCursor(sort, lastOrderId, lastOrderDate);
+    }
+
+    public String encode() {
+        String raw = sort.name() + DELIMITER + orderId + DELIMITER + (orderDate == null ? "" : orderDate);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 커서 문자열 해석
+     * - 커서가 없으면 sort 기준의 첫 페이지
+     * - 커서가 있으면 커서에 담긴 정렬 기준을 따른다.
+     */
+    public static OrderCursor decode(String cursor, Sort sort) {
+        if (!StringUtils.hasText(cursor)) {
+            return first(sort);
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] tokens = raw.split("\\" + DELIMITER, -1);
+            Sort cursorSort = Sort.valueOf(tokens[0]);
+            Long orderId = Long.valueOf(tokens[1]);
+            LocalDateTime orderDate = tokens[2].isEmpty() ? null : LocalDateTime.parse(tokens[2]);
+            if (cursorSort == Sort.DATE && orderDate == null) {
+                throw new IllegalArgumentException("orderDate is required");
+            }
+            return new OrderCursor(cursorSort, orderId, orderDate);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("잘못된 커서입니다.", e);
+        }
+    }
+
+    /**
+     * 키셋 조건
+     * - ID : order_id > :lastOrderId (PK 인덱스)
+     * - DATE : (order_date, order_id) > (:lastOrderDate, :lastOrderId) (idx_orders_order_date_id 인덱스)
+     */
+    public String toWhereClause(String alias) {
+        if (isFirst()) {
+            return "";
+        }
+        if (sort == Sort.ID) {
+            return " where " + alias + ".id > :lastOrderId";
+        }
+        return " where (" + alias + ".orderDate > :lastOrderDate" +
+                " or (" + alias + ".orderDate = :lastOrderDate and " + alias + ".id > :lastOrderId))";
+    }
+
+    public String toOrderByClause(String alias) {
+        if (sort == Sort.ID) {
+            return " order by " + alias + ".id";
+        }
+        return " order by " + alias + ".orderDate, " + alias + ".id";
+    }
+
+    // 정렬 기준 (여러 테이블에서 읽은 페이지를 합칠 때 사용)
+    public <T> Comparator<T> comparator(Function<T, Long> orderId, Function<T, LocalDateTime> orderDate) {
+        Comparator<T> byId = Comparator.comparing(orderId);
+        if (sort == Sort.ID) {
+            return byId;
+        }
+        return Comparator.comparing(orderDate).thenComparing(byId);
+    }
+
+    public <T> TypedQuery<T> bind(TypedQuery<T> query) {
+        if (isFirst()) {
+            return query;
+        }
+        query.setParameter("lastOrderId", orderId);
+        if (sort == Sort.DATE) {
+            query.setParameter("lastOrderDate", orderDate);
+        }
+        return query;
+    }
+}
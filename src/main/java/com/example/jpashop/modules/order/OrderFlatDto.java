@@ -0,0 +1,40 @@
+package com.example.jpashop.modules.order;
+
+import com.example.jpashop.modules.member.Address;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class OrderFlatDto {
+
+    private Long orderId;
+    private String name;
+    private LocalDateTime orderDate;
+    private OrderStatus orderStatus;
+    private Address address;
+
+    private String itemName;
+    private int orderPrice;
+    private int count;
+
+    public OrderFlatDto(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, Address address,
+                        String itemName, int orderPrice, int count) {
+        this.orderId = orderId;
+        this.name = name;
+        this.orderDate = orderDate;
+        this.orderStatus = orderStatus;
+        this.address = address;
+        this.itemName = itemName;
+        this.orderPrice = orderPrice;
+        this.count = count;
+    }
+
+    public OrderQueryDto toOrderQueryDto() {
+        return new OrderQueryDto(orderId, name, orderDate, orderStatus, address);
+    }
+
+    public OrderItemQueyDto toOrderItemQueryDto() {
+        return new OrderItemQueyDto(orderId, itemName, orderPrice, count);
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.jpashop.modules.order;
+
+import com.example.jpashop.exception.OrderQueueFullException;
+import com.example.jpashop.support.OptimisticRetry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 접수
+ * - sync(기본) : 요청마다 트랜잭션 하나 (OrderService.order)
+ * - async : 그룹 커밋
+ *   주문을 제한된 큐에 넣고, writer 스레드가 batch-size개 또는 window-millis 동안 모인 주문을
+ *   트랜잭션 하나로 저장한다. (OrderService.orderAll) 커밋과 커넥션 획득이 주문마다가 아니라 묶음마다 일어난다.
+ * - 주문 id는 CompletableFuture로 돌려주고, 커밋된 뒤에 완료된다.
+ * - 큐가 가득 차면 offer-timeout-millis 동안 기다리고 그래도 자리가 없으면 OrderQueueFullException (503)
+ */
+@Slf4j
+@Component
+public class OrderIntake {
+
+    public enum Mode {
+        SYNC, ASYNC
+    }
+
+    private final OrderService orderService;
+    private final OptimisticRetry optimisticRetry;
+    private final Mode mode;
+    private final int batchSize;
+    private final long windowNanos;
+    private final long offerTimeoutMillis;
+    private final int workers;
+
+    private final BlockingQueue<Pending> queue;
+    private final ExecutorService writers;
+    private volatile boolean running;
+
+    public OrderIntake(OrderService orderService, OptimisticRetry optimisticRetry,
+                       @Value("${jpashop.order.intake.mode:sync}") String mode,
+                       @Value("${jpashop.order.intake.queue-capacity:10000}") int queueCapacity,
+                       @Value("${jpashop.order.intake.batch-size:100}") int batchSize,
+                       @Value("${jpashop.order.intake.window-millis:5}") long windowMillis,
+                       @Value("${jpashop.order.intake.offer-timeout-millis:50}") long offerTimeoutMillis,
+                       @Value("${jpashop.order.intake.workers:2}") int workers) {
+        this.orderService = orderService;
+        this.optimisticRetry = optimisticRetry;
+        this.mode = Mode.valueOf(mode.toUpperCase());
+        this.batchSize = batchSize;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.workers = workers;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writers = Executors.newFixedThreadPool(workers, new CustomizableThreadFactory("order-writer-"));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (mode != Mode.ASYNC) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            writers.execute(this::drain);
+        }
+    }
+
+    public CompletableFuture<Long> submit(Long memberId, Long itemId, int count) {
+        if (mode == Mode.SYNC) {
+            try {
+                return CompletableFuture.completedFuture(
+                        optimisticRetry.execute(() -> orderService.order(memberId, itemId, count)));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        if (!running) {
+            throw new OrderQueueFullException("주문 접수가 중단되었습니다.");
+        }
+        Pending pending = new Pending(new OrderCommand(memberId, itemId, count));
+        try {
+            if (!queue.offer(pending, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new OrderQueueFullException("주문 대기열이 가득 찼습니다.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OrderQueueFullException("주문 접수 중 중단되었습니다.", e);
+        }
+        return pending.future;
+    }
+
+    // 종료 요청 후에도 큐에 남은 주문은 모두 처리하고 끝낸다.
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+
+                // 묶음이 덜 찼으면 window 동안 더 기다린다.
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.future.completeExceptionally(e));
+                return;
+            }
+
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<OrderCommand> commands = new ArrayList<>(batch.size());
+        batch.forEach(pending -> commands.add(pending.command));
+
+        try {
+            orderService.orderAll(commands);
+        } catch (RuntimeException e) {
+            // 묶음 전체가 롤백되었으므로 한 건씩 따로 처리한다.
+            log.warn("group commit failed. retry one by one. orders={}", batch.size(), e);
+            batch.forEach(this::writeOne);
+            return;
+        }
+
+        for (Pending pending : batch) {
+            if (pending.command.getFailure() != null) {
+                pending.future.completeExceptionally(pending.command.getFailure());
+            } else {
+                pending.future.complete(pending.command.getOrderId());
+            }
+        }
+    }
+
+    private void writeOne(Pending pending) {
+        OrderCommand command = pending.command;
+        try {
+            pending.future.complete(optimisticRetry.execute(
+                    () -> orderService.order(command.getMemberId(), command.getItemId(), command.getCount())));
+        } catch (RuntimeException e) {
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writers.shutdown();
+        if (!writers.awaitTermination(10, TimeUnit.SECONDS)) {
+            writers.shutdownNow();
+        }
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new OrderQueueFullException("주문 접수가 중단되었습니다."));
+        }
+    }
+
+    private static class Pending {
+        final OrderCommand command;
+        final CompletableFuture<Long> future = new CompletableFuture<>();
+
+        Pending(OrderCommand command) {
+            this.command = command;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.jpashop.modules.order;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 장바구니 주문 한 줄 (상품, 수량)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderLine {
+
+    private Long itemId;
+    private int count;
+}
@@ -16,6 +16,7 @@ public class OrderQueryDto {
     private LocalDateTime orderDate;
     private OrderStatus orderStatus;
     private Address address;
+    private long totalPrice;
     private List<OrderItemQueyDto> orderItems;
 
     public OrderQueryDto(Long orderId, String name,
@@ -26,4 +27,11 @@ public class OrderQueryDto {
         this.orderStatus = orderStatus;
         this.address = address;
     }
+
+    // 주문 금액은 DB에서 합산한다. (OrderQueryRepository.TOTAL_PRICE)
+    public OrderQueryDto(Long orderId, String name,
+                         LocalDateTime orderDate, OrderStatus orderStatus, Address address, Long totalPrice) {
+        this(orderId, name, orderDate, orderStatus, address);
+        this.totalPrice = totalPrice != null ? totalPrice : 0;
+    }
 }
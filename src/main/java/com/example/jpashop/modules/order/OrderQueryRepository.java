@@ -1,18 +1,46 @@
 package com.example.jpashop.modules.order;
 
+import com.example.jpashop.support.FlatAssembler;
+import com.example.jpashop.support.InQueryBatchLoader;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderQueryRepository {
 
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    // 주문 금액 (order_item을 DB에서 합산, 컬렉션을 로딩하지 않는다)
+    static final String TOTAL_PRICE = "(select sum(toi.orderPrice * toi.count) from OrderItem toi where toi.order = o)";
+
+    // 주문 -> 주문상품 조립
+    private static final FlatAssembler<OrderQueryDto, OrderItemQueyDto> ORDER_ASSEMBLER =
+            new FlatAssembler<>(OrderQueryDto::getOrderId, OrderQueryDto::setOrderItems);
+
+    private static final String ORDER_ITEMS = "select new com.example.jpashop.modules.order.OrderItemQueyDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
+            " from OrderItem oi" +
+            " join oi.item i" +
+            " where oi.order.id in :ids";
+
     private final EntityManager em;
+    private final InQueryBatchLoader inQueryBatchLoader;
+    private final OrderArchiveRepository orderArchiveRepository;
 
     public List<OrderQueryDto> findOrderQueryDtos() {
         // toOne 코드를 모두 한번에 조회
@@ -28,12 +56,34 @@ public class OrderQueryRepository {
 
     private List<OrderQueryDto> findOrders() {
 
-        return em.createQuery("select new com.example.jpashop.modules.order.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+        return em.createQuery("select new com.example.jpashop.modules.order.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address, " + TOTAL_PRICE + ")" +
                                 " from Order o" +
                                 " join o.member m" +
                                 " join o.delivery d", OrderQueryDto.class).getResultList();
     }
 
+    private List<OrderQueryDto> findOrders(OrderCursor cursor, int limit) {
+
+        return cursor.bind(em.createQuery("select new com.example.jpashop.modules.order.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address, " + TOTAL_PRICE + ")" +
+                                " from Order o" +
+                                " join o.member m" +
+                                " join o.delivery d" +
+                                cursor.toWhereClause("o") +
+                                cursor.toOrderByClause("o"), OrderQueryDto.class))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // 키셋 페이징, 컬렉션은 주문마다 조회 (1 + N Query, N은 limit 이하)
+    public List<OrderQueryDto> findOrderQueryDtos(OrderCursor cursor, int limit) {
+        return findOrderQueryDtos(cursor, limit, false);
+    }
+
+    // archived면 보관 주문까지 합친 페이지 (findPage)
+    public List<OrderQueryDto> findOrderQueryDtos(OrderCursor cursor, int limit, boolean archived) {
+        return findPage(cursor, limit, archived, this::findOrderItemsEach);
+    }
+
     // 1:N 관계인 orderItems 조회
     private List<OrderItemQueyDto> findOrderItems(Long orderId) {
         return em.createQuery("select new com.example.jpashop.modules.order.OrderItemQueyDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
@@ -49,29 +99,144 @@ public class OrderQueryRepository {
         // 루트 조회
         List<OrderQueryDto> result = findOrders();
 
-        // orderItem 컬렉션을 MAP 한방에 조회
-        Map<Long, List<OrderItemQueyDto>> orderItemMap = findOrderItemMap(toOrderIds(result));
-        result.forEach(o -> o.setOrderItems(orderItemMap.get(o.getOrderId())));
+        // orderItem 컬렉션을 IN 절 한방에 조회해서 주문 id로 잇는다. (주문이 많으면 청크로 나눠 병렬 조회)
+        ORDER_ASSEMBLER.attach(result, findOrderItems(toOrderIds(result)), OrderItemQueyDto::getOrderId);
         return result;
     }
 
-    private Map<Long, List<OrderItemQueyDto>> findOrderItemMap(List<Long> orderIds) {
-        List<OrderItemQueyDto> orderItems = em.createQuery(
-                "select new com.example.jpashop.modules.order.OrderItemQueyDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
-                        " from OrderItem oi" +
-                        " join oi.item i" +
-                        " where oi.order.id in :orderIds", OrderItemQueyDto.class)
-                .setParameter("orderIds", orderIds)
-                .getResultList();
+    // 키셋 페이징, 컬렉션은 IN 절 배치 조회 (1 + 1 Query)
+    public List<OrderQueryDto> findAllByDto_optimization(OrderCursor cursor, int limit) {
+        return findAllByDto_optimization(cursor, limit, false);
+    }
 
-        return orderItems.stream()
-                .collect(Collectors.groupingBy(OrderItemQueyDto::getOrderId));
+    public List<OrderQueryDto> findAllByDto_optimization(OrderCursor cursor, int limit, boolean archived) {
+        return findPage(cursor, limit, archived, this::findOrderItemsInBatch);
+    }
+
+    /**
+     * 키셋 페이지 조회
+     * - archived면 orders와 orders_archive에서 같은 커서로 limit개씩 읽고, 커서 정렬 순서로 합쳐서 limit개를 자른다.
+     *   (주문 + 1) 쿼리가 테이블마다 한 번씩 늘어난다.
+     * - 두 테이블을 읽는 사이에 보관된 주문은 양쪽에 보일 수 있으므로 보관 쪽 하나만 남긴다.
+     * - 컬렉션은 orderItems가 테이블마다 (주문 목록, 주문상품 JPQL)로 채운다.
+     */
+    private List<OrderQueryDto> findPage(OrderCursor cursor, int limit, boolean archived,
+                                         BiConsumer<List<OrderQueryDto>, String> orderItems) {
+        List<OrderQueryDto> result = findOrders(cursor, limit);
+        if (!archived) {
+            orderItems.accept(result, ORDER_ITEMS);
+            return result;
+        }
+
+        List<OrderQueryDto> archivedOrders = orderArchiveRepository.findOrderQueryDtos(cursor, limit);
+        Set<OrderQueryDto> fromArchive = Collections.newSetFromMap(new IdentityHashMap<>());
+        fromArchive.addAll(archivedOrders);
+
+        // 정렬이 안정적이므로 같은 주문이면 보관 쪽이 앞에 온다.
+        List<OrderQueryDto> merged = new ArrayList<>(archivedOrders.size() + result.size());
+        merged.addAll(archivedOrders);
+        merged.addAll(result);
+        merged.sort(cursor.comparator(OrderQueryDto::getOrderId, OrderQueryDto::getOrderDate));
+
+        List<OrderQueryDto> page = new ArrayList<>(Math.min(merged.size(), limit));
+        for (OrderQueryDto order : merged) {
+            if (page.size() == limit) {
+                break;
+            }
+            if (page.isEmpty() || !page.get(page.size() - 1).getOrderId().equals(order.getOrderId())) {
+                page.add(order);
+            }
+        }
+
+        orderItems.accept(filter(page, o -> !fromArchive.contains(o)), ORDER_ITEMS);
+        orderItems.accept(filter(page, fromArchive::contains), OrderArchiveRepository.ORDER_ITEMS);
+        return page;
+    }
 
+    private void findOrderItemsInBatch(List<OrderQueryDto> orders, String jpql) {
+        ORDER_ASSEMBLER.attach(orders, inQueryBatchLoader.load(jpql, OrderItemQueyDto.class, toOrderIds(orders)),
+                OrderItemQueyDto::getOrderId);
     }
 
-    private List<Long> toOrderIds(List<OrderQueryDto> result) {
-        return result.stream().map(o -> o.getOrderId()).collect(Collectors.toList());
+    private void findOrderItemsEach(List<OrderQueryDto> orders, String jpql) {
+        orders.forEach(o -> o.setOrderItems(em.createQuery(jpql, OrderItemQueyDto.class)
+                .setParameter(InQueryBatchLoader.IDS_PARAMETER, List.of(o.getOrderId()))
+                .getResultList()));
     }
 
-    
+    private List<OrderItemQueyDto> findOrderItems(long[] orderIds) {
+        return inQueryBatchLoader.load(ORDER_ITEMS, OrderItemQueyDto.class, orderIds);
+    }
+
+    private long[] toOrderIds(List<OrderQueryDto> result) {
+        return result.stream().mapToLong(OrderQueryDto::getOrderId).toArray();
+    }
+
+    private List<OrderQueryDto> filter(List<OrderQueryDto> result, Predicate<OrderQueryDto> filter) {
+        return result.stream().filter(filter).collect(Collectors.toList());
+    }
+
+    /**
+     * 플랫 데이터 조회 (1 Query)
+     * - Order, Member, Delivery, OrderItem, Item을 한번에 조인하므로 주문이 orderItem 수만큼 중복된다.
+     * - 주문 id 순으로 정렬해서 같은 주문의 row가 연속으로 오도록 한다.
+     */
+    public List<OrderFlatDto> findAllByDto_flat() {
+        return createFlatQuery().getResultList();
+    }
+
+    // forward-only 커서로 한 row씩 읽는다. 사용 후 반드시 close 해야 한다.
+    public Stream<OrderFlatDto> streamAllByDto_flat() {
+        return createFlatQuery()
+                .setHint(QueryHints.FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private TypedQuery<OrderFlatDto> createFlatQuery() {
+        return em.createQuery(
+                "select new com.example.jpashop.modules.order.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
+                        " from Order o" +
+                        " join o.member m" +
+                        " join o.delivery d" +
+                        " join o.orderItems oi" +
+                        " join oi.item i" +
+                        " order by o.id", OrderFlatDto.class);
+    }
+
+    /**
+     * 플랫 데이터를 주문 단위로 묶어서 하나씩 전달한다.
+     * - row가 주문 id 순으로 오므로 id가 바뀌면 직전 주문이 완성된 것이다.
+     * - 조립 중인 주문 하나만 메모리에 유지하므로 전체 주문 수와 무관하게 메모리 사용량이 일정하다.
+     * - 커서가 열려 있는 동안 커넥션을 유지해야 하므로 트랜잭션 안에서 처리한다.
+     */
+    @Transactional(readOnly = true)
+    public void forEachByDto_flat(Consumer<OrderQueryDto> action) {
+        try (Stream<OrderFlatDto> flats = streamAllByDto_flat()) {
+            ORDER_ASSEMBLER.forEachSorted(flats.iterator(), OrderFlatDto::getOrderId,
+                    OrderFlatDto::toOrderQueryDto, OrderFlatDto::toOrderItemQueryDto,
+                    order -> {
+                        order.setTotalPrice(totalPrice(order.getOrderItems()));
+                        action.accept(order);
+                    });
+        }
+    }
+
+    /**
+     * 플랫 데이터를 주문 단위로 묶어서 조회 (1 Query)
+     */
+    public List<OrderQueryDto> findAllByDto_flatAssembled() {
+        List<OrderQueryDto> result = ORDER_ASSEMBLER.assemble(findAllByDto_flat(), OrderFlatDto::getOrderId,
+                OrderFlatDto::toOrderQueryDto, OrderFlatDto::toOrderItemQueryDto);
+        result.forEach(order -> order.setTotalPrice(totalPrice(order.getOrderItems())));
+        return result;
+    }
+
+    private static long totalPrice(List<OrderItemQueyDto> orderItems) {
+        long totalPrice = 0;
+        for (OrderItemQueyDto orderItem : orderItems) {
+            totalPrice += (long) orderItem.getOrderPrice() * orderItem.getCount();
+        }
+        return totalPrice;
+    }
 }
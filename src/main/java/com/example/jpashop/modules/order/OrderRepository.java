@@ -1,21 +1,33 @@
 package com.example.jpashop.modules.order;
 
 import com.example.jpashop.modules.member.Member;
+import com.example.jpashop.support.FieldSelection;
+import com.example.jpashop.support.etag.VersionFingerprint;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderRepository {
 
+    private static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+
     private final EntityManager em;
+    private final VersionFingerprint versionFingerprint;
 
     public void save(Order order) {
         em.persist(order);
@@ -25,6 +37,14 @@ public class OrderRepository {
         return em.find(Order.class, id);
     }
 
+    /**
+     * 주문 (비관적 락)
+     * - 배송 배치(DeliveryBatchRepository.updateStatus)와 같은 순서로 주문 row를 먼저 잠그고 배송 상태를 확인한다.
+     */
+    public Order findOneForUpdate(Long id) {
+        return em.find(Order.class, id, LockModeType.PESSIMISTIC_WRITE);
+    }
+
     /**
      * 주문 검색 기능
      */
@@ -70,14 +90,33 @@ public class OrderRepository {
     }
  */
 
-    public List<Order> findAllByCriteria(OrderSearch orderSearch) {
+    /**
+     * 주문 검색 (페이징)
+     * - 회원 이름은 like '%name%'이라 인덱스를 못 탄다. 이름 색인을 쓸 수 없을 때만 사용한다.
+     */
+    public Page<Order> findAllByCriteria(OrderSearch orderSearch) {
 
         CriteriaBuilder cb = em.getCriteriaBuilder();
-        CriteriaQuery<Order> cq = cb.createQuery(Order.class);
+        Pageable pageable = orderSearch.toPageable();
 
+        CriteriaQuery<Order> cq = cb.createQuery(Order.class);
         Root<Order> o = cq.from(Order.class);
-        Join<Order, Member> m = o.join("member", JoinType.INNER);
+        o.fetch("member", JoinType.INNER);
+        cq.where(criteria(cb, o, orderSearch));
+        cq.orderBy(cb.desc(o.get("id")));
+        List<Order> content = em.createQuery(cq)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<Order> countRoot = countQuery.from(Order.class);
+        countQuery.select(cb.count(countRoot)).where(criteria(cb, countRoot, orderSearch));
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> em.createQuery(countQuery).getSingleResult());
+    }
 
+    private Predicate[] criteria(CriteriaBuilder cb, Root<Order> o, OrderSearch orderSearch) {
         List<Predicate> criteria = new ArrayList<>();
 
         // 주문 상태 검색
@@ -87,20 +126,77 @@ public class OrderRepository {
         }
         // 회원 이름 검색
         if (StringUtils.hasText(orderSearch.getMemberName())) {
+            Join<Order, Member> m = o.join("member", JoinType.INNER);
             Predicate name = cb.like(m.<String>get("name"), "%" + orderSearch.getMemberName() + "%");
             criteria.add(name);
         }
+        return criteria.toArray(new Predicate[0]);
+    }
 
-        cq.where(cb.and(criteria.toArray(new Predicate[criteria.size()])));
-        TypedQuery<Order> query = em.createQuery(cq).setMaxResults(1000);
+    /**
+     * 회원 id 목록으로 주문 검색 (페이징)
+     * - 회원 이름 색인에서 찾은 회원 id로 조회하므로 (member_id, status) 인덱스를 탄다.
+     */
+    public Page<Order> findAllByMemberIds(long[] memberIds, OrderSearch orderSearch) {
+        Pageable pageable = orderSearch.toPageable();
+        if (memberIds.length == 0) {
+            return Page.empty(pageable);
+        }
+        List<Long> ids = Arrays.stream(memberIds).boxed().collect(Collectors.toList());
+        String where = " where o.member.id in :memberIds" +
+                (orderSearch.getOrderStatus() != null ? " and o.status = :status" : "");
+
+        TypedQuery<Order> query = em.createQuery("select o from Order o join fetch o.member m" + where +
+                        " order by o.id desc", Order.class)
+                .setParameter("memberIds", ids)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize());
+        TypedQuery<Long> countQuery = em.createQuery("select count(o) from Order o" + where, Long.class)
+                .setParameter("memberIds", ids);
+        if (orderSearch.getOrderStatus() != null) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+            countQuery.setParameter("status", orderSearch.getOrderStatus());
+        }
 
-        return query.getResultList();
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, countQuery::getSingleResult);
+    }
+
+    /**
+     * 취소할 주문의 [주문 id, 주문 상태, 배송 상태] (비관적 락)
+     * - 같은 주문을 동시에 취소해도 재고가 두 번 복구되지 않도록 커밋할 때까지 주문 row를 잠근다.
+     */
+    public List<Object[]> findStatusesForUpdate(Collection<Long> orderIds) {
+        return em.createQuery("select o.id, o.status, d.status from Order o" +
+                        " join o.delivery d" +
+                        " where o.id in :orderIds", Object[].class)
+                .setParameter("orderIds", orderIds)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    // 주문 상태 일괄 취소 (벌크 연산, version을 올리고 조건부 GET의 ETag가 바뀌도록 지문을 바꾼다)
+    public int cancelAll(Collection<Long> orderIds) {
+        versionFingerprint.changed(Order.class);
+        return em.createQuery("update Order o set o.status = :cancel, o.version = o.version + 1 where o.id in :orderIds")
+                .setParameter("cancel", OrderStatus.CANCEL)
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
     }
 
     public List<Order> findAll() {
         return em.createQuery("select o from Order o", Order.class).getResultList();
     }
 
+    /**
+     * 선택한 필드의 연관관계만 페치 조인 (쿼리 1번)
+     * - 컬렉션을 페치하면 row가 늘어나므로 distinct
+     */
+    public List<Order> findAll(FieldSelection fields) {
+        return em.createQuery("select distinct o from Order o order by o.id", Order.class)
+                .setHint(FETCH_GRAPH, fields.toEntityGraph(em, Order.class))
+                .getResultList();
+    }
+
     public List<Order> findAllWithMemberDelivery() {
         return em.createQuery("select o from Order o" +
                                         " join fetch o.member m" +
@@ -123,4 +219,19 @@ public class OrderRepository {
                         .setMaxResults(limit)
                         .getResultList();
     }
+
+    /**
+     * 키셋 페이징
+     * - ToOne 관계는 페치 조인, 컬렉션은 default_batch_fetch_size로 조회한다.
+     * - offset 대신 마지막 조회 위치(cursor) 다음부터 limit개를 조회한다.
+     */
+    public List<Order> findAllWithMemberDelivery(OrderCursor cursor, int limit) {
+        return cursor.bind(em.createQuery("select o from Order o" +
+                                    " join fetch o.member m" +
+                                    " join fetch o.delivery d" +
+                                    cursor.toWhereClause("o") +
+                                    cursor.toOrderByClause("o"), Order.class))
+                        .setMaxResults(limit)
+                        .getResultList();
+    }
 }
@@ -1,10 +1,25 @@
 package com.example.jpashop.modules.order;
 
 import lombok.Data;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 @Data
 public class OrderSearch {
 
+    private static final int MAX_SIZE = 100;
+
     private String memberName;
     private OrderStatus orderStatus;
+
+    // 보관 주문(orders_archive)도 포함 (기본은 orders만)
+    private boolean archived;
+
+    // 페이지 (0부터), 페이지 크기
+    private int page;
+    private int size = 20;
+
+    public Pageable toPageable() {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_SIZE));
+    }
 }
@@ -1,17 +1,26 @@
 package com.example.jpashop.modules.order;
 
+import com.example.jpashop.exception.NotEnoughStockException;
 import com.example.jpashop.modules.delivery.Delivery;
 import com.example.jpashop.modules.delivery.DeliveryStatus;
 import com.example.jpashop.modules.item.Item;
 import com.example.jpashop.modules.item.ItemRepository;
+import com.example.jpashop.modules.item.StockService;
 import com.example.jpashop.modules.member.Member;
+import com.example.jpashop.modules.member.MemberNameIndex;
 import com.example.jpashop.modules.member.MemberRepository;
 import com.example.jpashop.modules.orderItem.OrderItem;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional(readOnly = true)
@@ -21,6 +30,10 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final StockService stockService;
+    private final OrderSummaryService orderSummaryService;
+    private final SalesService salesService;
+    private final MemberNameIndex memberNameIndex;
 
     /**
      * 주문
@@ -35,30 +48,166 @@ public class OrderService {
         delivery.setAddress(member.getAddress());
         delivery.setStatus(DeliveryStatus.READY);
 
-        // 주문 상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        // 주문 상품 생성 (재고 차감)
+        OrderItem orderItem = stockService.createOrderItem(item, item.getPrice(), count);
         // 주문 생성
         Order order = Order.createOrder(member, delivery, orderItem);
 
         // 주문 저장
         orderRepository.save(order);
+        orderSummaryService.create(order);
+        salesService.addOrders(List.of(order));
         return order.getId();
     }
 
+    /**
+     * 주문 여러 건을 트랜잭션 하나로 처리 (그룹 커밋, OrderIntake)
+     * - 커밋이 한 번이고 insert가 jdbc batch_size 단위로 묶인다.
+     * - 재고 부족, 없는 회원/상품은 해당 주문만 실패로 표시하고 나머지는 계속 처리한다.
+     * - 그 밖의 예외는 전체가 롤백되므로 호출하는 쪽에서 한 건씩 다시 처리한다.
+     */
+    @Transactional
+    public void orderAll(List<OrderCommand> commands) {
+        List<Order> orders = new ArrayList<>(commands.size());
+        for (OrderCommand command : commands) {
+            Member member = memberRepository.findOne(command.getMemberId());
+            Item item = itemRepository.findOne(command.getItemId());
+            if (member == null || item == null) {
+                command.fail(new IllegalArgumentException("회원 또는 상품이 없습니다."));
+                continue;
+            }
+
+            // 주문 상품 생성 (재고 차감)
+            OrderItem orderItem = stockService.tryCreateOrderItem(item, item.getPrice(), command.getCount());
+            if (orderItem == null) {
+                command.fail(new NotEnoughStockException("need more stock"));
+                continue;
+            }
+
+            // 배송 정보 생성
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+            delivery.setStatus(DeliveryStatus.READY);
+
+            // 주문 생성, 저장
+            Order order = Order.createOrder(member, delivery, orderItem);
+            orderRepository.save(order);
+            orderSummaryService.create(order);
+            orders.add(order);
+            command.succeed(order.getId());
+        }
+        salesService.addOrders(orders);
+    }
+
+    /**
+     * 장바구니 주문
+     * - 여러 상품을 주문 하나(Order 1, Delivery 1, OrderItem N)로 생성한다.
+     * - 상품은 IN 쿼리로 한번에 조회하고 재고도 한번에 차감한다.
+     * - insert는 hibernate.jdbc.batch_size 단위로 묶여서 전송된다. (order_inserts로 테이블별 정렬)
+     */
+    @Transactional
+    public Long checkout(Long memberId, List<OrderLine> lines) {
+        Member member = memberRepository.findOne(memberId);
+
+        // 배송 정보 생성
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        delivery.setStatus(DeliveryStatus.READY);
+
+        // 주문 상품 생성 (재고 차감)
+        List<OrderItem> orderItems = stockService.createOrderItems(toQuantities(lines));
+        // 주문 생성
+        Order order = Order.createOrder(member, delivery, orderItems.toArray(new OrderItem[0]));
+
+        // 주문 저장
+        orderRepository.save(order);
+        orderSummaryService.create(order);
+        salesService.addOrders(List.of(order));
+        return order.getId();
+    }
+
+    // 같은 상품이 여러 줄이면 수량을 합친다. (요청 순서 유지)
+    private Map<Long, Integer> toQuantities(List<OrderLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("주문할 상품이 없습니다.");
+        }
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderLine line : lines) {
+            if (line.getItemId() == null || line.getCount() <= 0) {
+                throw new IllegalArgumentException("주문 상품과 수량(1개 이상)을 확인해주세요.");
+            }
+            quantities.merge(line.getItemId(), line.getCount(), Integer::sum);
+        }
+        return quantities;
+    }
+
     /**
      * 주문 취소
+     * - 이미 취소된 주문은 아무것도 하지 않는다. (중복 요청, 동시 취소 후 OptimisticRetry 재시도)
+     *   재고 복구와 일별 판매 차감이 두 번 일어나지 않게 한다.
+     * - 주문 row를 잠근 뒤에 배송 상태를 확인한다. 배송 배치와 동시에 실행돼도 완료된 배송의 주문이 취소되지 않는다.
      */
     @Transactional
     public void cancelOrder(Long orderId) {
-        Order order = orderRepository.findOne(orderId);
+        Order order = orderRepository.findOneForUpdate(orderId);
+        if (order.getStatus() == OrderStatus.CANCEL) {
+            return;
+        }
         order.cancel();
+        orderSummaryService.refresh(order);
+        salesService.cancelOrder(order);
+    }
+
+    /**
+     * 주문 일괄 취소
+     * - 주문/배송 상태 조회(락) 1번, 재고 복구 update 1번, 주문 상태 update 1번, 주문 요약 update 1번,
+     *   일별 판매 집계 1번 + 주문일 수만큼 카운터 update. 주문 상품 수와 무관하게 쿼리 수가 일정하다.
+     * - 배송 완료, 이미 취소된 주문, 없는 주문은 건너뛰고 주문별 결과로 알려준다.
+     * - 벌크 연산이므로 이 트랜잭션의 영속성 컨텍스트에 이미 있는 주문/상품에는 반영되지 않는다.
+     * @return 요청한 주문 id 순서대로 결과
+     */
+    @Transactional
+    public Map<Long, OrderCancelResult> cancelOrders(Collection<Long> orderIds) {
+        Map<Long, OrderCancelResult> results = new LinkedHashMap<>();
+        orderIds.forEach(orderId -> results.put(orderId, OrderCancelResult.NOT_FOUND));
+        if (results.isEmpty()) {
+            return results;
+        }
+
+        List<Long> cancellable = new ArrayList<>(results.size());
+        for (Object[] row : orderRepository.findStatusesForUpdate(results.keySet())) {
+            Long orderId = (Long) row[0];
+            if (row[1] == OrderStatus.CANCEL) {
+                results.put(orderId, OrderCancelResult.ALREADY_CANCELLED);
+            } else if (row[2] == DeliveryStatus.COMP) {
+                results.put(orderId, OrderCancelResult.DELIVERED);
+            } else {
+                results.put(orderId, OrderCancelResult.CANCELLED);
+                cancellable.add(orderId);
+            }
+        }
+
+        if (!cancellable.isEmpty()) {
+            itemRepository.restoreStocks(cancellable);
+            orderRepository.cancelAll(cancellable);
+            orderSummaryService.cancelAll(cancellable);
+            salesService.cancelAll(cancellable);
+        }
+        return results;
     }
 
     /**
      * 주문 검색
+     * - 회원 이름이 있으면 이름 색인에서 회원 id를 먼저 찾고, 그 회원들의 주문만 조회한다.
      */
-    public List<Order> findOrders(OrderSearch orderSearch) {
-        List<Order> orders = orderRepository.findAllByCriteria(orderSearch);
-        return orders;
+    public Page<Order> findOrders(OrderSearch orderSearch) {
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            long[] memberIds = memberNameIndex.search(orderSearch.getMemberName());
+            if (memberIds != null) {
+                return orderRepository.findAllByMemberIds(memberIds, orderSearch);
+            }
+        }
+        return orderRepository.findAllByCriteria(orderSearch);
     }
 }
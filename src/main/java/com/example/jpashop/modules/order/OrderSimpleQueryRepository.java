@@ -14,7 +14,8 @@ public class OrderSimpleQueryRepository {
 
     public List<OrderSimpleQueryDto> findOrderDtos() {
         return em.createQuery(
-                "select new com.example.jpashop.modules.order.OrderSimpleQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
+                "select new com.example.jpashop.modules.order.OrderSimpleQueryDto(o.id, m.name, o.orderDate, o.status, d.address, " +
+                        OrderQueryRepository.TOTAL_PRICE + ")" +
                         " from Order o" +
                         " join o.member m" +
                         " join o.delivery d", OrderSimpleQueryDto.class)
@@ -0,0 +1,62 @@
+package com.example.jpashop.modules.order;
+
+import com.example.jpashop.modules.member.Address;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 주문 요약 (조회 전용 비정규화 테이블)
+ * - 주문당 1 row, 목록/검색 API가 orders, member, delivery 조인 없이 이 테이블만 조회한다.
+ * - 주문/취소/회원 이름 변경 시 같은 트랜잭션에서 함께 갱신한다. (OrderSummaryService)
+ * - orders와 FK로 묶지 않는다. 언제든 OrderSummaryService.rebuild()로 다시 만들 수 있다.
+ */
+@Entity
+@Getter @Setter
+@Table(name = "order_summary", indexes = {
+        @Index(name = "idx_order_summary_status_order_id", columnList = "status, order_id"),
+        @Index(name = "idx_order_summary_member_id", columnList = "memberId"),
+        @Index(name = "idx_order_summary_member_name", columnList = "memberName")})
+public class OrderSummary {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    private Long memberId;
+    private String memberName;
+
+    // 배송지 주소
+    @Embedded
+    private Address address;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    private LocalDateTime orderDate;
+
+    private int totalPrice;
+
+    private int itemCount;  // 주문상품(order_item) 수
+
+    // 주문 요약 생성
+    public static OrderSummary createOrderSummary(Order order) {
+        OrderSummary summary = new OrderSummary();
+        summary.setOrderId(order.getId());
+        summary.refresh(order);
+        return summary;
+    }
+
+    // 주문 기준으로 다시 계산
+    public void refresh(Order order) {
+        this.memberId = order.getMember().getId();
+        this.memberName = order.getMember().getName();
+        this.address = order.getDelivery().getAddress();
+        this.status = order.getStatus();
+        this.orderDate = order.getOrderDate();
+        this.totalPrice = order.getTotalPrice();
+        this.itemCount = order.getOrderItems().size();
+    }
+}
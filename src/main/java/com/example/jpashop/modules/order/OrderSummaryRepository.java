@@ -0,0 +1,102 @@
+package com.example.jpashop.modules.order;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderSummaryRepository {
+
+    static final int MAX_RESULTS = 1000;
+
+    private final EntityManager em;
+
+    public void save(OrderSummary summary) {
+        em.persist(summary);
+    }
+
+    public OrderSummary findOne(Long orderId) {
+        return em.find(OrderSummary.class, orderId);
+    }
+
+    /**
+     * 주문 검색 (조인 없이 order_summary만 조회)
+     * - 회원 이름은 앞부분 일치(name%)로 찾는다. idx_order_summary_member_name 범위 검색
+     *   (이름 중간 글자로 찾는 건 OrderService.findOrders, 이름 색인)
+     */
+    public List<OrderSimpleQueryDto> findAll(OrderSearch orderSearch) {
+
+        String jpql = "select new com.example.jpashop.modules.order.OrderSimpleQueryDto(s.orderId, s.memberName, s.orderDate, s.status, s.address, cast(s.totalPrice as long))" +
+                " from OrderSummary s" +
+                " where 1 = 1";
+        if (orderSearch.getOrderStatus() != null) {
+            jpql += " and s.status = :status";
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            jpql += " and s.memberName like :name escape '\\'";
+        }
+        jpql += " order by s.orderId";
+
+        TypedQuery<OrderSimpleQueryDto> query = em.createQuery(jpql, OrderSimpleQueryDto.class)
+                .setMaxResults(MAX_RESULTS);
+        if (orderSearch.getOrderStatus() != null) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            query.setParameter("name", prefixPattern(orderSearch.getMemberName()));
+        }
+        return query.getResultList();
+    }
+
+    // like 앞부분 일치 패턴 (검색어의 %, _는 글자 그대로 찾는다)
+    static String prefixPattern(String name) {
+        return name.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    // 회원 이름 변경 반영 (벌크 연산)
+    public int updateMemberName(Long memberId, String memberName) {
+        return em.createQuery("update OrderSummary s set s.memberName = :memberName where s.memberId = :memberId")
+                .setParameter("memberName", memberName)
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+
+    // 주문 일괄 취소 반영 (벌크 연산)
+    public int cancelAll(Collection<Long> orderIds) {
+        return em.createQuery("update OrderSummary s set s.status = :cancel where s.orderId in :orderIds")
+                .setParameter("cancel", OrderStatus.CANCEL)
+                .setParameter("orderIds", orderIds)
+                .executeUpdate();
+    }
+
+    public int deleteAll() {
+        return em.createQuery("delete from OrderSummary").executeUpdate();
+    }
+
+    /**
+     * orders, member, delivery, order_item에서 한번에 다시 계산해서 채운다. (insert ... select)
+     * - 네이티브 쿼리는 어떤 테이블을 바꾸는지 Hibernate가 모르므로 order_summary만 바꾼다고 알려준다.
+     *   (알려주지 않으면 2차 캐시 전체가 무효화된다.)
+     */
+    public int insertAllFromOrders() {
+        return em.createNativeQuery(
+                "insert into order_summary (order_id, member_id, member_name, city, street, zipcode, status, order_date, total_price, item_count)" +
+                        " select o.order_id, m.member_id, m.name, d.city, d.street, d.zipcode, o.status, o.order_date," +
+                        " coalesce(sum(oi.order_price * oi.count), 0), count(oi.order_item_id)" +
+                        " from orders o" +
+                        " join member m on m.member_id = o.member_id" +
+                        " join delivery d on d.id = o.delivery_id" +
+                        " left join order_item oi on oi.order_id = o.order_id" +
+                        " group by o.order_id, m.member_id, m.name, d.city, d.street, d.zipcode, o.status, o.order_date")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(OrderSummary.class)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.jpashop.modules.order;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderSummaryService {
+
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+
+    /**
+     * 주문 요약 생성
+     * - 주문 트랜잭션 안에서 호출한다.
+     */
+    @Transactional
+    public void create(Order order) {
+        orderSummaryRepository.save(OrderSummary.createOrderSummary(order));
+    }
+
+    /**
+     * 주문 요약 갱신
+     * - 주문/취소 트랜잭션 안에서 호출한다.
+     */
+    @Transactional
+    public void refresh(Order order) {
+        OrderSummary summary = orderSummaryRepository.findOne(order.getId());
+        if (summary == null) {
+            orderSummaryRepository.save(OrderSummary.createOrderSummary(order));
+        } else {
+            summary.refresh(order);
+        }
+    }
+
+    /**
+     * 주문 일괄 취소 반영
+     * - 일괄 취소 트랜잭션 안에서 호출한다.
+     */
+    @Transactional
+    public void cancelAll(Collection<Long> orderIds) {
+        orderSummaryRepository.cancelAll(orderIds);
+    }
+
+    @Transactional
+    public void changeMemberName(Long memberId, String memberName) {
+        orderSummaryRepository.updateMemberName(memberId, memberName);
+    }
+
+    /**
+     * 주문 요약 전체 재생성
+     */
+    @Transactional
+    public int rebuild() {
+        int deleted = orderSummaryRepository.deleteAll();
+        int inserted = orderSummaryRepository.insertAllFromOrders();
+        log.info("order_summary rebuilt. deleted={}, inserted={}", deleted, inserted);
+        return inserted;
+    }
+
+    /**
+     * 주문 검색
+     * - archived면 보관 주문에서도 같은 조건으로 찾아서 주문 id 순으로 합친다. (보관 주문은 주문 요약이 없으므로 조인해서 조회)
+     */
+    public List<OrderSimpleQueryDto> findOrderSummaries(OrderSearch orderSearch) {
+        List<OrderSimpleQueryDto> result = orderSummaryRepository.findAll(orderSearch);
+        if (!orderSearch.isArchived()) {
+            return result;
+        }
+        List<OrderSimpleQueryDto> archived = orderArchiveRepository.findAll(orderSearch, OrderSummaryRepository.MAX_RESULTS);
+        List<OrderSimpleQueryDto> merged = new ArrayList<>(result.size() + archived.size());
+        merged.addAll(result);
+        merged.addAll(archived);
+        merged.sort(Comparator.comparing(OrderSimpleQueryDto::getOrderId));
+        return merged.size() > OrderSummaryRepository.MAX_RESULTS ? merged.subList(0, OrderSummaryRepository.MAX_RESULTS) : merged;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.jpashop.modules.order;
+
+import lombok.Data;
+
+/**
+ * 상품별 / 회원별 판매 집계
+ */
+@Data
+public class SalesDto {
+
+    private Long id;
+    private String name;
+    private long orderCount;
+    private long quantity;
+    private long amount;
+
+    public SalesDto(Long id, String name, Long orderCount, Long quantity, Long amount) {
+        this.id = id;
+        this.name = name;
+        this.orderCount = orderCount != null ? orderCount : 0;
+        this.quantity = quantity != null ? quantity : 0;
+        this.amount = amount != null ? amount : 0;
+    }
+}
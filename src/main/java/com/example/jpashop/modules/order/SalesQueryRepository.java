@@ -0,0 +1,115 @@
+package com.example.jpashop.modules.order;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 판매 집계 조회
+ * - sum(orderPrice * count)를 DB에서 계산하므로 주문/주문상품 엔티티를 로딩하지 않는다.
+ * - 취소된 주문은 제외한다.
+ * - 기간은 [from, to) 주문일 기준 (idx_orders_order_date_id)
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesQueryRepository {
+
+    private final EntityManager em;
+
+    // 주문별 금액
+    public Map<Long, Long> findTotalPrices(Collection<Long> orderIds) {
+        List<Object[]> rows = em.createQuery(
+                "select oi.order.id, sum(oi.orderPrice * oi.count)" +
+                        " from OrderItem oi" +
+                        " where oi.order.id in :orderIds" +
+                        " group by oi.order.id", Object[].class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
+
+        Map<Long, Long> totalPrices = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            totalPrices.put((Long) row[0], (Long) row[1]);
+        }
+        return totalPrices;
+    }
+
+    // 상품별 판매 (금액 순)
+    public List<SalesDto> findSalesByItem(LocalDateTime from, LocalDateTime to, int limit) {
+        return em.createQuery(
+                "select new com.example.jpashop.modules.order.SalesDto(i.id, i.name, count(distinct o.id), sum(oi.count), sum(oi.orderPrice * oi.count))" +
+                        " from OrderItem oi" +
+                        " join oi.order o" +
+                        " join oi.item i" +
+                        " where o.status = :status and o.orderDate >= :from and o.orderDate < :to" +
+                        " group by i.id, i.name" +
+                        " order by sum(oi.orderPrice * oi.count) desc", SalesDto.class)
+                .setParameter("status", OrderStatus.ORDER)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // 회원별 판매 (금액 순)
+    public List<SalesDto> findSalesByMember(LocalDateTime from, LocalDateTime to, int limit) {
+        return em.createQuery(
+                "select new com.example.jpashop.modules.order.SalesDto(m.id, m.name, count(distinct o.id), sum(oi.count), sum(oi.orderPrice * oi.count))" +
+                        " from OrderItem oi" +
+                        " join oi.order o" +
+                        " join o.member m" +
+                        " where o.status = :status and o.orderDate >= :from and o.orderDate < :to" +
+                        " group by m.id, m.name" +
+                        " order by sum(oi.orderPrice * oi.count) desc", SalesDto.class)
+                .setParameter("status", OrderStatus.ORDER)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // 일별 판매 (order_item 스캔, 카운터 검증/재생성용)
+    public List<DailySalesDto> findDailySales(LocalDateTime from, LocalDateTime to) {
+        return toDailySales(em.createQuery(
+                "select cast(o.orderDate as date), count(distinct o.id), sum(oi.count), sum(oi.orderPrice * oi.count)" +
+                        " from OrderItem oi" +
+                        " join oi.order o" +
+                        " where o.status = :status and o.orderDate >= :from and o.orderDate < :to" +
+                        " group by cast(o.orderDate as date)" +
+                        " order by cast(o.orderDate as date)", Object[].class)
+                .setParameter("status", OrderStatus.ORDER)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList());
+    }
+
+    // 주문들의 일별 판매 (일괄 취소 시 카운터 차감용, 상태와 무관)
+    public List<DailySalesDto> findDailySales(Collection<Long> orderIds) {
+        return toDailySales(em.createQuery(
+                "select cast(o.orderDate as date), count(distinct o.id), sum(oi.count), sum(oi.orderPrice * oi.count)" +
+                        " from OrderItem oi" +
+                        " join oi.order o" +
+                        " where o.id in :orderIds" +
+                        " group by cast(o.orderDate as date)", Object[].class)
+                .setParameter("orderIds", orderIds)
+                .getResultList());
+    }
+
+    // cast(... as date)는 java.sql.Date로 온다.
+    private List<DailySalesDto> toDailySales(List<Object[]> rows) {
+        List<DailySalesDto> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            LocalDate date = ((Date) row[0]).toLocalDate();
+            result.add(new DailySalesDto(date, (Long) row[1], (Long) row[2], (Long) row[3]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.jpashop.modules.order;
+
+import com.example.jpashop.modules.orderItem.OrderItem;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class SalesService {
+
+    private final SalesQueryRepository salesQueryRepository;
+    private final DailySalesRepository dailySalesRepository;
+
+    /**
+     * 주문 생성 반영 (일별 카운터 증가)
+     * - 주문 트랜잭션 안에서 호출한다. 주문상품은 이미 메모리에 있으므로 조회하지 않는다.
+     * - 같은 날짜의 주문은 update 한 번으로 합친다. (그룹 커밋)
+     */
+    @Transactional
+    public void addOrders(Collection<Order> orders) {
+        Map<LocalDate, DailySalesDto> deltas = new LinkedHashMap<>();
+        for (Order order : orders) {
+            LocalDate date = order.getOrderDate().toLocalDate();
+            deltas.computeIfAbsent(date, d -> new DailySalesDto(d, 0L, 0L, 0L))
+                    .add(1, quantity(order), order.getTotalPrice());
+        }
+        deltas.values().forEach(delta -> apply(delta, 1));
+    }
+
+    /**
+     * 주문 취소 반영 (일별 카운터 차감)
+     * - 취소 트랜잭션 안에서 호출한다.
+     */
+    @Transactional
+    public void cancelOrder(Order order) {
+        apply(new DailySalesDto(order.getOrderDate().toLocalDate(), 1L, (long) quantity(order), (long) order.getTotalPrice()), -1);
+    }
+
+    /**
+     * 주문 일괄 취소 반영
+     * - 주문 수와 무관하게 집계 쿼리 1번 + 날짜 수만큼 update
+     */
+    @Transactional
+    public void cancelAll(Collection<Long> orderIds) {
+        salesQueryRepository.findDailySales(orderIds).forEach(delta -> apply(delta, -1));
+    }
+
+    private int quantity(Order order) {
+        return order.getOrderItems().stream().mapToInt(OrderItem::getCount).sum();
+    }
+
+    private void apply(DailySalesDto delta, int sign) {
+        LocalDate date = delta.getDate();
+        int stripe = ThreadLocalRandom.current().nextInt(DailySales.STRIPES);
+        long orderCount = sign * delta.getOrderCount();
+        long quantity = sign * delta.getQuantity();
+        long amount = sign * delta.getAmount();
+
+        if (dailySalesRepository.add(date, stripe, orderCount, quantity, amount) > 0) {
+            return;
+        }
+        dailySalesRepository.createIfAbsent(date, stripe);
+        if (dailySalesRepository.add(date, stripe, orderCount, quantity, amount) == 0) {
+            throw new IllegalStateException("일별 판매 카운터를 갱신하지 못했습니다. date=" + date);
+        }
+    }
+
+    /**
+     * 일별 판매 카운터 전체 재생성
+     */
+    @Transactional
+    public int rebuildDailySales() {
+        int deleted = dailySalesRepository.deleteAll();
+        int inserted = dailySalesRepository.insertAllFromOrders();
+        log.info("daily_sales rebuilt. deleted={}, inserted={}", deleted, inserted);
+        return inserted;
+    }
+
+    // 일별 판매 (카운터, 날짜 수만큼만 읽는다)
+    public List<DailySalesDto> findDailySales(LocalDate from, LocalDate to) {
+        return dailySalesRepository.findAll(from, to);
+    }
+
+    public List<SalesDto> findSalesByItem(LocalDate from, LocalDate to, int limit) {
+        return salesQueryRepository.findSalesByItem(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), limit);
+    }
+
+    public List<SalesDto> findSalesByMember(LocalDate from, LocalDate to, int limit) {
+        return salesQueryRepository.findSalesByMember(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), limit);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.jpashop.modules.orderItem;
 
 import com.example.jpashop.modules.item.Item;
 import com.example.jpashop.modules.order.Order;
+import com.example.jpashop.support.PooledSequenceGenerator;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -12,7 +13,7 @@ import javax.persistence.*;
 @Getter @Setter
 public class OrderItem {
 
-    @Id @GeneratedValue
+    @Id @GeneratedValue(generator = PooledSequenceGenerator.NAME)
     @Column(name = "order_item_id")
     private Long id;
 
@@ -39,6 +40,15 @@ public class OrderItem {
         return orderItem;
     }
     
+    // 생성 메서드 (재고는 이미 차감된 경우)
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItem(item);
+        orderItem.setOrderPrice(orderPrice);
+        orderItem.setCount(count);
+        return orderItem;
+    }
+
     // 주문 취소
     public void cancel() {
         getItem().addStock(count);
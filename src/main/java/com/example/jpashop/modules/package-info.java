@@ -0,0 +1,9 @@
+/**
+ * 모든 엔티티가 공유하는 id 생성기
+ * - @GeneratedValue(generator = PooledSequenceGenerator.NAME)
+ */
+@GenericGenerator(name = PooledSequenceGenerator.NAME, strategy = PooledSequenceGenerator.STRATEGY)
+package com.example.jpashop.modules;
+
+import com.example.jpashop.support.PooledSequenceGenerator;
+import org.hibernate.annotations.GenericGenerator;
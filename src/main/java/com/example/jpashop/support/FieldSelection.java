@@ -0,0 +1,127 @@
+package com.example.jpashop.support;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.Subgraph;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 응답 필드 선택 (?fields=id,member.name,orderItems.item.name)
+ * - 허용한 필드 트리(allowed) 안에서만 고를 수 있다. 연관관계 이름만 주면 (member) 허용된 하위 필드 전체
+ * - 하위 필드가 있는 필드(연관관계)로 엔티티 그래프를 만들어서 조회 쿼리 한 번에 필요한 연관관계만 페치 조인한다.
+ * - project()는 선택한 필드만 읽어서 Map으로 옮긴다. 선택하지 않은 연관관계는 건드리지 않으므로 지연 로딩이 없다.
+ */
+public final class FieldSelection {
+
+    private final Map<String, FieldSelection> children;
+
+    private FieldSelection(Map<String, FieldSelection> children) {
+        this.children = children;
+    }
+
+    /**
+     * 허용 필드 트리
+     * @param paths 점(.)으로 구분한 필드 경로 (leaf 필드만)
+     */
+    public static FieldSelection allowed(String... paths) {
+        FieldSelection root = new FieldSelection(new LinkedHashMap<>());
+        for (String path : paths) {
+            FieldSelection node = root;
+            for (String name : path.split("\\.")) {
+                node = node.children.computeIfAbsent(name, key -> new FieldSelection(new LinkedHashMap<>()));
+            }
+        }
+        return root;
+    }
+
+    /**
+     * 요청한 필드만 남긴 선택
+     * @param fields 쉼표로 구분한 필드 경로
+     * @throws IllegalArgumentException 허용하지 않은 필드
+     */
+    public FieldSelection select(String fields) {
+        FieldSelection selected = new FieldSelection(new LinkedHashMap<>());
+        for (String path : fields.split(",")) {
+            String trimmed = path.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            FieldSelection allowed = this;
+            FieldSelection node = selected;
+            for (String name : trimmed.split("\\.")) {
+                allowed = allowed.children.get(name);
+                if (allowed == null) {
+                    throw new IllegalArgumentException("선택할 수 없는 필드입니다: " + trimmed);
+                }
+                node = node.children.computeIfAbsent(name, key -> new FieldSelection(new LinkedHashMap<>()));
+            }
+            // 연관관계 이름만 주면 허용된 하위 필드 전체 (허용 트리는 읽기만 하므로 그대로 공유한다)
+            node.children.putAll(allowed.children);
+        }
+        if (selected.children.isEmpty()) {
+            throw new IllegalArgumentException("선택한 필드가 없습니다.");
+        }
+        return selected;
+    }
+
+    public boolean isLeaf() {
+        return children.isEmpty();
+    }
+
+    public Map<String, FieldSelection> getChildren() {
+        return Collections.unmodifiableMap(children);
+    }
+
+    /**
+     * 하위 필드가 선택된 연관관계만 담은 엔티티 그래프 (javax.persistence.fetchgraph 힌트로 사용)
+     */
+    public <T> EntityGraph<T> toEntityGraph(EntityManager em, Class<T> rootType) {
+        EntityGraph<T> graph = em.createEntityGraph(rootType);
+        children.forEach((name, child) -> {
+            if (!child.isLeaf()) {
+                child.addTo(graph.addSubgraph(name));
+            }
+        });
+        return graph;
+    }
+
+    private void addTo(Subgraph<?> subgraph) {
+        children.forEach((name, child) -> {
+            if (!child.isLeaf()) {
+                child.addTo(subgraph.addSubgraph(name));
+            }
+        });
+    }
+
+    /**
+     * 선택한 필드만 Map으로 (컬렉션은 List)
+     */
+    public Object project(Object source) {
+        if (source == null) {
+            return null;
+        }
+        if (source instanceof Collection) {
+            List<Object> list = new ArrayList<>(((Collection<?>) source).size());
+            for (Object element : (Collection<?>) source) {
+                list.add(project(element));
+            }
+            return list;
+        }
+
+        BeanWrapper bean = PropertyAccessorFactory.forBeanPropertyAccess(source);
+        Map<String, Object> result = new LinkedHashMap<>();
+        children.forEach((name, child) -> {
+            Object value = bean.getPropertyValue(name);
+            result.put(name, child.isLeaf() ? value : child.project(value));
+        });
+        return result;
+    }
+}
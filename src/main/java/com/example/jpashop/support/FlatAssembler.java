@@ -0,0 +1,173 @@
+package com.example.jpashop.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * 루트 - 자식 객체 그래프 조립 (주문 -> 주문상품, 회원 -> 주문, 카테고리 -> 상품 등)
+ * - 루트는 long 키로 찾는다. (LongObjectMap, 키 박싱 없음)
+ * - 자식 수를 먼저 세고 루트마다 딱 맞는 배열을 한 번만 할당한다. (ArrayList 확장, 중간 List 없음)
+ * - 자식 목록은 고정 크기 List로 넣는다. 자식이 없는 루트는 빈 List
+ * - 스레드 안전하지 않은 상태는 호출마다 새로 만들므로 인스턴스는 공유해도 된다.
+ *
+ * @param <R> 루트 (예: OrderQueryDto)
+ * @param <C> 자식 (예: OrderItemQueyDto)
+ */
+public class FlatAssembler<R, C> {
+
+    private final ToLongFunction<R> rootKey;
+    private final BiConsumer<R, List<C>> childrenSetter;
+
+    /**
+     * @param rootKey        루트 키 (예: OrderQueryDto::getOrderId)
+     * @param childrenSetter 자식 목록 설정 (예: OrderQueryDto::setOrderItems)
+     */
+    public FlatAssembler(ToLongFunction<R> rootKey, BiConsumer<R, List<C>> childrenSetter) {
+        this.rootKey = rootKey;
+        this.childrenSetter = childrenSetter;
+    }
+
+    /**
+     * 따로 조회한 루트와 자식을 잇는다. (1 + 1 Query)
+     * - 자식 순서는 조회 순서를 유지한다. 루트에 없는 키의 자식은 버린다.
+     * - 루트 키는 중복되지 않아야 한다.
+     *
+     * @param parentKey 자식의 루트 키 (예: OrderItemQueyDto::getOrderId)
+     */
+    public void attach(List<R> roots, List<C> children, ToLongFunction<C> parentKey) {
+        LongObjectMap<Group<R>> groups = new LongObjectMap<>(roots.size());
+        for (R root : roots) {
+            groups.put(rootKey.applyAsLong(root), new Group<>(root));
+        }
+
+        for (C child : children) {
+            Group<R> group = groups.get(parentKey.applyAsLong(child));
+            if (group != null) {
+                group.size++;
+            }
+        }
+        groups.forEach((key, group) -> group.allocate());
+
+        for (C child : children) {
+            Group<R> group = groups.get(parentKey.applyAsLong(child));
+            if (group != null) {
+                group.add(child);
+            }
+        }
+        groups.forEach((key, group) -> childrenSetter.accept(group.root, group.toList()));
+    }
+
+    /**
+     * 조인한 플랫 row(루트 컬럼 + 자식 컬럼)를 루트 단위로 묶는다. (1 Query)
+     * - row 순서는 상관없다. 루트는 처음 나온 순서로 돌려준다.
+     * - 루트는 키마다 처음 row로 한 번만 만든다.
+     * - child가 null을 돌려주면(outer join으로 자식이 없는 row) 자식으로 넣지 않는다.
+     *
+     * @param key   row의 루트 키
+     * @param root  row -> 루트
+     * @param child row -> 자식
+     */
+    public <F> List<R> assemble(List<F> rows, ToLongFunction<F> key, Function<F, R> root, Function<F, C> child) {
+        LongObjectMap<Group<R>> groups = new LongObjectMap<>(rows.size());
+        List<Group<R>> ordered = new ArrayList<>();
+        for (F row : rows) {
+            long rowKey = key.applyAsLong(row);
+            Group<R> group = groups.get(rowKey);
+            if (group == null) {
+                group = new Group<>(root.apply(row));
+                groups.put(rowKey, group);
+                ordered.add(group);
+            }
+            group.size++;
+        }
+        ordered.forEach(Group::allocate);
+
+        for (F row : rows) {
+            C value = child.apply(row);
+            if (value != null) {
+                groups.get(key.applyAsLong(row)).add(value);
+            }
+        }
+
+        List<R> result = new ArrayList<>(ordered.size());
+        for (Group<R> group : ordered) {
+            childrenSetter.accept(group.root, group.toList());
+            result.add(group.root);
+        }
+        return result;
+    }
+
+    /**
+     * 루트 키 순으로 정렬된 플랫 row를 읽으면서 루트가 완성될 때마다 전달한다.
+     * - 키가 바뀌면 직전 루트가 완성된 것이다. 조립 중인 루트 하나만 메모리에 유지한다.
+     * - 자식은 재사용하는 버퍼에 모았다가 루트가 끝나면 딱 맞는 크기로 복사한다.
+     */
+    public <F> void forEachSorted(Iterator<F> rows, ToLongFunction<F> key, Function<F, R> root, Function<F, C> child,
+                                  Consumer<R> action) {
+        List<C> buffer = new ArrayList<>();
+        R current = null;
+        long currentKey = 0;
+
+        while (rows.hasNext()) {
+            F row = rows.next();
+            long rowKey = key.applyAsLong(row);
+            if (current == null || rowKey != currentKey) {
+                if (current != null) {
+                    complete(current, buffer, action);
+                }
+                current = root.apply(row);
+                currentKey = rowKey;
+            }
+            C value = child.apply(row);
+            if (value != null) {
+                buffer.add(value);
+            }
+        }
+
+        if (current != null) {
+            complete(current, buffer, action);
+        }
+    }
+
+    private void complete(R root, List<C> buffer, Consumer<R> action) {
+        childrenSetter.accept(root, buffer.isEmpty() ? Collections.emptyList() : List.copyOf(buffer));
+        buffer.clear();
+        action.accept(root);
+    }
+
+    private static class Group<R> {
+        private final R root;
+        private Object[] children;
+        private int size;
+
+        Group(R root) {
+            this.root = root;
+        }
+
+        // 센 만큼 할당하고 다시 0부터 채운다.
+        void allocate() {
+            children = new Object[size];
+            size = 0;
+        }
+
+        void add(Object child) {
+            children[size++] = child;
+        }
+
+        @SuppressWarnings("unchecked")
+        <C> List<C> toList() {
+            if (size == 0) {
+                return Collections.emptyList();
+            }
+            List<C> list = (List<C>) Arrays.asList(children);
+            return size == children.length ? list : list.subList(0, size);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.jpashop.support;
+
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IN 절 배치 조회
+ * - id 목록을 청크로 나눠서 "... in :ids" 쿼리를 실행하고 결과를 이어 붙인다. (루트와 잇는 건 FlatAssembler)
+ * - 청크 길이를 CHUNK_SIZES 중 하나로 맞춘다. (마지막 id를 반복해서 채움)
+ *   IN 절 길이마다 쿼리 플랜이 따로 캐시되므로 플랜 수가 CHUNK_SIZES 개수로 고정된다.
+ * - 기본(parallelism=0)은 호출한 쪽의 영속성 컨텍스트(트랜잭션)에서 청크를 차례로 실행한다. 커넥션을 더 쓰지 않는다.
+ * - parallelism > 0이면 첫 청크는 호출한 스레드가, 나머지는 공유 스레드 풀이 청크마다 별도의 읽기 전용 EntityManager로 실행한다.
+ *   별도 커넥션이므로 커밋된 데이터만 보인다. -> 조회 전용으로 사용
+ *   풀 스레드가 추가로 잡는 커넥션은 모든 요청을 합쳐 parallelism개 이하다.
+ *   요청 스레드가 커넥션을 모두 잡고 풀 스레드를 기다리면 커넥션 타임아웃까지 막히므로
+ *   parallelism은 (커넥션 풀 크기 - 동시에 조회하는 요청 수)보다 작게 잡는다.
+ * - 풀의 대기열이 차면 남은 청크는 호출한 스레드가 자신의 EntityManager로 실행한다.
+ */
+@Component
+public class InQueryBatchLoader {
+
+    public static final String IDS_PARAMETER = "ids";
+
+    static final int[] CHUNK_SIZES = {16, 64, 256, 1000};
+    private static final int MAX_CHUNK_SIZE = CHUNK_SIZES[CHUNK_SIZES.length - 1];
+
+    private final EntityManager em;
+    private final EntityManagerFactory emf;
+    private final ExecutorService executor;   // parallelism=0이면 null
+
+    public InQueryBatchLoader(EntityManager em, EntityManagerFactory emf,
+                              @Value("${jpashop.query.in-batch.parallelism:0}") int parallelism) {
+        this.em = em;
+        this.emf = emf;
+        this.executor = parallelism > 0
+                ? new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(parallelism * 4),
+                        new CustomizableThreadFactory("in-query-loader-"),
+                        new ThreadPoolExecutor.AbortPolicy())
+                : null;
+    }
+
+    /**
+     * @param jpql IN 파라미터 이름은 :ids (IDS_PARAMETER)
+     * @return 청크 순서대로 이어 붙인 결과
+     */
+    public <T> List<T> load(String jpql, Class<T> resultType, long[] ids) {
+        long[] distinctIds = distinctSorted(ids);
+        if (distinctIds.length == 0) {
+            return new ArrayList<>();
+        }
+
+        List<List<Long>> chunks = toChunks(distinctIds);
+        if (chunks.size() == 1) {
+            return query(em, jpql, resultType, chunks.get(0));
+        }
+        if (executor == null) {
+            List<T> result = new ArrayList<>();
+            for (List<Long> chunk : chunks) {
+                result.addAll(query(em, jpql, resultType, chunk));
+            }
+            return result;
+        }
+
+        // null인 청크(첫 청크, 대기열이 차서 못 넣은 청크)는 호출한 스레드가 실행한다.
+        List<Future<List<T>>> futures = new ArrayList<>(chunks.size());
+        futures.add(null);
+        for (List<Long> chunk : chunks.subList(1, chunks.size())) {
+            try {
+                futures.add(executor.submit(() -> queryReadOnly(jpql, resultType, chunk)));
+            } catch (RejectedExecutionException e) {
+                futures.add(null);
+            }
+        }
+        try {
+            List<List<T>> results = new ArrayList<>(chunks.size());
+            int size = 0;
+            for (int i = 0; i < chunks.size(); i++) {
+                Future<List<T>> future = futures.get(i);
+                List<T> rows = future == null
+                        ? query(em, jpql, resultType, chunks.get(i))
+                        : future.get();
+                results.add(rows);
+                size += rows.size();
+            }
+            List<T> result = new ArrayList<>(size);
+            results.forEach(result::addAll);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll(futures);
+            throw new IllegalStateException("IN 절 배치 조회가 중단되었습니다.", e);
+        } catch (ExecutionException e) {
+            cancelAll(futures);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("IN 절 배치 조회에 실패했습니다.", e.getCause());
+        } catch (RuntimeException e) {
+            cancelAll(futures);
+            throw e;
+        }
+    }
+
+    private <T> List<T> queryReadOnly(String jpql, Class<T> resultType, List<Long> chunk) {
+        EntityManager chunkEm = emf.createEntityManager();
+        try {
+            chunkEm.unwrap(Session.class).setDefaultReadOnly(true);
+            return query(chunkEm, jpql, resultType, chunk);
+        } finally {
+            chunkEm.close();
+        }
+    }
+
+    private <T> List<T> query(EntityManager em, String jpql, Class<T> resultType, List<Long> chunk) {
+        return em.createQuery(jpql, resultType)
+                .setParameter(IDS_PARAMETER, chunk)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultList();
+    }
+
+    private void cancelAll(List<? extends Future<?>> futures) {
+        futures.stream().filter(Objects::nonNull).forEach(future -> future.cancel(true));
+    }
+
+    static List<List<Long>> toChunks(long[] ids) {
+        List<List<Long>> chunks = new ArrayList<>((ids.length + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+        for (int from = 0; from < ids.length; from += MAX_CHUNK_SIZE) {
+            int length = Math.min(MAX_CHUNK_SIZE, ids.length - from);
+            int paddedLength = paddedSize(length);
+
+            List<Long> chunk = new ArrayList<>(paddedLength);
+            for (int i = 0; i < length; i++) {
+                chunk.add(ids[from + i]);
+            }
+            Long last = chunk.get(length - 1);
+            while (chunk.size() < paddedLength) {
+                chunk.add(last);
+            }
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    static int paddedSize(int length) {
+        for (int size : CHUNK_SIZES) {
+            if (length <= size) {
+                return size;
+            }
+        }
+        return MAX_CHUNK_SIZE;
+    }
+
+    private static long[] distinctSorted(long[] ids) {
+        long[] sorted = Arrays.copyOf(ids, ids.length);
+        Arrays.sort(sorted);
+
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.jpashop.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 동시성 충돌 시 재시도
+ * - 낙관적 락 충돌(@Version)과 락 대기 시간 초과/데드락(조건부 update)을 재시도한다. (ConcurrencyFailureException)
+ * - 트랜잭션 바깥에서 호출해야 한다. (충돌한 트랜잭션은 이미 롤백되었으므로 새 트랜잭션으로 다시 실행)
+ * - 최대 maxAttempts번, 시도마다 대기 시간을 늘리고 지터를 더해 동시에 다시 충돌하지 않게 한다.
+ * - 재시도 중인지는 isRetrying()으로 알 수 있다. (StockService가 낙관적 락 방식으로 바꿔서 다시 시도한다)
+ */
+@Slf4j
+@Component
+public class OptimisticRetry {
+
+    private static final ThreadLocal<Integer> ATTEMPT = new ThreadLocal<>();
+
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public OptimisticRetry(@Value("${jpashop.stock.retry.max-attempts:3}") int maxAttempts,
+                           @Value("${jpashop.stock.retry.backoff-millis:10}") long backoffMillis) {
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        Integer outer = ATTEMPT.get();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                ATTEMPT.set(attempt);
+                try {
+                    return action.get();
+                } catch (ConcurrencyFailureException e) {
+                    if (attempt >= maxAttempts) {
+                        throw e;
+                    }
+                    log.debug("concurrency failure. retry {}/{}: {}", attempt, maxAttempts, e.getClass().getSimpleName());
+                    sleep(attempt);
+                }
+            }
+        } finally {
+            if (outer == null) {
+                ATTEMPT.remove();
+            } else {
+                ATTEMPT.set(outer);
+            }
+        }
+    }
+
+    /**
+     * 현재 스레드가 execute()의 두 번째 이후 시도를 실행하는 중인지
+     */
+    public static boolean isRetrying() {
+        Integer attempt = ATTEMPT.get();
+        return attempt != null && attempt > 1;
+    }
+
+    public void execute(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private void sleep(int attempt) {
+        long millis = backoffMillis * attempt + ThreadLocalRandom.current().nextLong(backoffMillis + 1);
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("재시도 대기 중 중단되었습니다.", e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.jpashop.support;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.PersistentIdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 테이블별 시퀀스 + pooled(-lo) 옵티마이저
+ * - 기본 @GeneratedValue는 hibernate_sequence 하나를 increment 1로 공유하므로 row마다 시퀀스를 조회한다.
+ * - allocation_size만큼 id를 미리 할당받아 메모리에서 나눠주므로 시퀀스 조회가 allocation_size개 insert당 1번으로 줄고
+ *   insert를 JDBC 배치로 묶을 수 있다. (IDENTITY 전략은 insert 즉시 id가 필요해서 배치가 꺼진다.)
+ * - 시퀀스 이름은 "{테이블}_seq"
+ *
+ * spring.jpa.properties 설정
+ * - jpashop.id.allocation_size : 기본 할당 크기 (기본값 50)
+ * - jpashop.id.allocation-sizes.{테이블} : 테이블별 할당 크기 (없으면 allocation_size)
+ * - jpashop.id.optimizer : pooled-lo(기본값) 또는 pooled
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String NAME = "pooled_sequence";
+    public static final String STRATEGY = "com.example.jpashop.support.PooledSequenceGenerator";
+
+    public static final String ALLOCATION_SIZE = "jpashop.id.allocation_size";
+    public static final String ALLOCATION_SIZES = "jpashop.id.allocation-sizes";
+    public static final String OPTIMIZER = "jpashop.id.optimizer";
+
+    private static final int DEFAULT_ALLOCATION_SIZE = 50;
+    private static final String DEFAULT_OPTIMIZER = "pooled-lo";
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        String table = params.getProperty(PersistentIdentifierGenerator.TABLE);
+
+        params.putIfAbsent(SEQUENCE_PARAM, table + "_seq");
+        params.putIfAbsent(INCREMENT_PARAM, String.valueOf(allocationSize(settings, table)));
+        params.putIfAbsent(OPT_PARAM, String.valueOf(settings.getOrDefault(OPTIMIZER, DEFAULT_OPTIMIZER)));
+
+        super.configure(type, params, serviceRegistry);
+    }
+
+    private int allocationSize(Map<?, ?> settings, String table) {
+        Object value = settings.get(ALLOCATION_SIZES + "." + table);
+        if (value == null) {
+            value = settings.get(ALLOCATION_SIZE);
+        }
+        return value == null ? DEFAULT_ALLOCATION_SIZE : Integer.parseInt(value.toString().trim());
+    }
+}
@@ -0,0 +1,401 @@
+package com.example.jpashop.support.datagen;
+
+import com.example.jpashop.modules.category.CategoryTreeSnapshot;
+import com.example.jpashop.modules.delivery.DeliveryStatus;
+import com.example.jpashop.modules.item.Item;
+import com.example.jpashop.modules.member.Member;
+import com.example.jpashop.modules.member.MemberNameFilter;
+import com.example.jpashop.modules.member.MemberNameIndex;
+import com.example.jpashop.modules.order.Order;
+import com.example.jpashop.modules.order.OrderStatus;
+import com.example.jpashop.support.etag.VersionFingerprint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 성능 테스트용 대량 데이터 생성
+ * - 회원, 상품(Book/Album/Movie), 카테고리 트리, 주문(배송, 주문상품)을 JDBC 배치 insert로 바로 넣는다.
+ *   엔티티를 만들지 않으므로 영속성 컨텍스트, 더티 체킹 비용 없이 수백만 row도 일정한 메모리로 만든다.
+ * - 같은 DatasetSpec(seed)이면 같은 데이터가 만들어진다. 테이블마다 난수 스트림을 나눠서 규모를 바꿔도 다른 테이블 값은 그대로다.
+ * - 인기 상품, 단골 회원에 주문이 몰리도록 Zipf 분포로 고르고, 주문당 상품 수는 기하분포로 정한다.
+ * - id는 시퀀스에서 미리 한 구간을 받아 쓰고 시퀀스를 그 뒤로 옮긴다. (애플리케이션이 쓰던 id 블록과 겹치지 않는다.)
+ * - 기존 데이터에 추가한다. 주문 요약, 일별 판매 카운터는 만들지 않으므로 필요하면 다시 만든다.
+ * - 생성 중 다른 쓰기는 없다고 가정한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatasetGenerator {
+
+    private static final String[] CITIES = {"서울", "부산", "대구", "인천", "광주", "대전", "울산", "진주"};
+
+    private final DataSource dataSource;
+    private final EntityManagerFactory emf;
+    private final MemberNameFilter memberNameFilter;
+    private final MemberNameIndex memberNameIndex;
+    private final CategoryTreeSnapshot categoryTreeSnapshot;
+    private final VersionFingerprint versionFingerprint;
+
+    public DatasetReport generate(DatasetSpec spec) {
+        long start = System.nanoTime();
+        DatasetReport report = new DatasetReport();
+        Run run;
+        try (Connection connection = dataSource.getConnection()) {
+            run = new Run(spec, connection, report);
+            run.execute();
+        } catch (SQLException e) {
+            throw new IllegalStateException("dataset generation failed", e);
+        }
+        report.finish(System.nanoTime() - start, run.checksum);
+
+        // JDBC로 직접 넣었으므로 캐시, 메모리에 올려둔 이름 필터/색인, 카테고리 트리, 조건부 GET 지문을 새로 채운다.
+        emf.getCache().evictAll();
+        versionFingerprint.changed(Order.class);
+        versionFingerprint.changed(Member.class);
+        versionFingerprint.changed(Item.class);
+        memberNameFilter.warmUp();
+        memberNameIndex.warmUp();
+        categoryTreeSnapshot.init();
+
+        log.info("dataset generated. seed={}, {}", spec.getSeed(), report);
+        return report;
+    }
+
+    /**
+     * 한 번의 생성 작업 (커넥션, 배치, 체크섬)
+     */
+    private static class Run {
+
+        private final DatasetSpec spec;
+        private final Connection connection;
+        private final DatasetReport report;
+        private final SplittableRandom root;
+
+        private long checksum = 17;
+        private long uncommitted;
+
+        Run(DatasetSpec spec, Connection connection, DatasetReport report) {
+            this.spec = spec;
+            this.connection = connection;
+            this.report = report;
+            this.root = new SplittableRandom(spec.getSeed());
+        }
+
+        void execute() throws SQLException {
+            if (spec.getOrders() > 0 && (spec.getMembers() == 0 || spec.getItems() == 0)) {
+                throw new IllegalArgumentException("주문을 만들려면 회원과 상품이 필요합니다.");
+            }
+            int categories = categoryCount();
+            int orderItems = spec.getOrders() * spec.getMaxItemsPerOrder();
+
+            // 시퀀스 변경(DDL)은 H2에서 바로 커밋되므로 insert 전에 모두 끝낸다.
+            connection.setAutoCommit(true);
+            long memberBase = reserve("member_seq", spec.getMembers());
+            long itemBase = reserve("item_seq", spec.getItems());
+            long categoryBase = reserve("category_seq", categories);
+            long orderBase = reserve("orders_seq", spec.getOrders());
+            long deliveryBase = reserve("delivery_seq", spec.getOrders());
+            long orderItemBase = reserve("order_item_seq", orderItems);
+
+            connection.setAutoCommit(false);
+            try {
+                insertMembers(memberBase);
+                insertCategories(categoryBase);
+                insertItems(itemBase, categoryBase, categories);
+                insertOrders(orderBase, deliveryBase, orderItemBase, memberBase, itemBase);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+
+        private long reserve(String sequence, long count) throws SQLException {
+            if (count == 0) {
+                return 0;
+            }
+            long base;
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select next value for " + sequence)) {
+                rs.next();
+                base = rs.getLong(1);
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("alter sequence " + sequence + " restart with " + (base + count));
+            }
+            return base;
+        }
+
+        private void insertMembers(long base) throws SQLException {
+            SplittableRandom random = root.split();
+            try (Batch members = new Batch("member", "insert into member (member_id, name, city, street, zipcode, version) values (?, ?, ?, ?, ?, 0)")) {
+                for (int i = 0; i < spec.getMembers(); i++) {
+                    String city = CITIES[random.nextInt(CITIES.length)];
+                    String street = "거리-" + random.nextInt(1000);
+                    String zipcode = String.format("%05d", random.nextInt(100_000));
+                    members.add(base + i, "member-" + (base + i), hash(city), hash(street), hash(zipcode));
+                    flushIfFull(members);
+                }
+            }
+        }
+
+        // 루트부터 한 단계씩 넣는다. 같은 단계 카테고리는 id 순서대로 부모를 나눠 가진다.
+        private void insertCategories(long base) throws SQLException {
+            try (Batch categories = new Batch("category", "insert into category (category_id, name, path, depth, parent_id) values (?, ?, ?, ?, ?)")) {
+                int levelStart = 0;
+                int levelSize = spec.getCategoryRoots();
+                List<String> paths = new ArrayList<>();
+                for (int i = 0; i < levelSize; i++) {
+                    paths.add("/");
+                    categories.add(base + i, hash("카테고리-0-" + i), "/", 0, null);
+                }
+                for (int depth = 1; depth <= spec.getCategoryDepth(); depth++) {
+                    int next = levelStart + levelSize;
+                    for (int i = 0; i < levelSize * spec.getCategoryFanout(); i++) {
+                        int parent = levelStart + i / spec.getCategoryFanout();
+                        long parentId = base + parent;
+                        String path = paths.get(parent) + parentId + "/";
+                        paths.add(path);
+                        categories.add(base + next + i, hash("카테고리-" + depth + "-" + i), path, depth, parentId);
+                        flushIfFull(categories);
+                    }
+                    levelStart = next;
+                    levelSize *= spec.getCategoryFanout();
+                }
+            }
+        }
+
+        private void insertItems(long base, long categoryBase, int categories) throws SQLException {
+            SplittableRandom random = root.split();
+            int leaves = leafCount();
+            int firstLeaf = categories - leaves;
+            try (Batch items = new Batch("item", "insert into item (dtype, item_id, name, price, stock_quantity, version," +
+                    " author, isbn, artist, etc, director, actor) values (?, ?, ?, ?, ?, 0, ?, ?, ?, ?, ?, ?)");
+                 Batch categoryItems = new Batch("category_item", "insert into category_item (category_id, item_id) values (?, ?)")) {
+                for (int i = 0; i < spec.getItems(); i++) {
+                    long id = base + i;
+                    int price = hash((5 + random.nextInt(496)) * 100);
+                    int stock = hash(100 + random.nextInt(9_901));
+                    double type = random.nextDouble();
+                    if (type < spec.getBookRatio()) {
+                        items.add(hash("B"), id, "BOOK-" + id, price, stock,
+                                hash("작가-" + random.nextInt(1000)), hash(String.valueOf(9_780_000_000_000L + random.nextLong(10_000_000_000L))),
+                                null, null, null, null);
+                    } else if (type < spec.getBookRatio() + spec.getAlbumRatio()) {
+                        items.add(hash("A"), id, "ALBUM-" + id, price, stock, null, null,
+                                hash("가수-" + random.nextInt(1000)), hash("장르-" + random.nextInt(20)), null, null);
+                    } else {
+                        items.add(hash("M"), id, "MOVIE-" + id, price, stock, null, null, null, null,
+                                hash("감독-" + random.nextInt(1000)), hash("배우-" + random.nextInt(1000)));
+                    }
+                    if (leaves > 0) {
+                        categoryItems.add(categoryBase + firstLeaf + hash(random.nextInt(leaves)), id);
+                    }
+                    if (items.isFull()) {
+                        items.flush();
+                        categoryItems.flush();
+                        commitIfNeeded();
+                    }
+                }
+                items.flush();
+            }
+        }
+
+        /**
+         * 주문 i의 주문 시각은 기간을 주문 수로 나눈 i번째 구간 안에서 정하므로 id 순서와 시간 순서가 같다.
+         * 배송 -> 주문 -> 주문상품 순서로 FK가 걸려 있으므로 같은 순서로 flush 한다.
+         */
+        private void insertOrders(long base, long deliveryBase, long orderItemBase, long memberBase, long itemBase) throws SQLException {
+            SplittableRandom random = root.split();
+            ZipfSampler memberSampler = new ZipfSampler(spec.getMembers(), spec.getMemberSkew(), random);
+            ZipfSampler itemSampler = new ZipfSampler(spec.getItems(), spec.getItemSkew(), random);
+            LocalDateTime from = spec.getEndDate().minusDays(spec.getDays()).atStartOfDay();
+            long slotNanos = TimeUnit.DAYS.toNanos(spec.getDays()) / Math.max(spec.getOrders(), 1);
+            int[] picked = new int[spec.getMaxItemsPerOrder()];
+
+            // 상품 가격은 주문 가격에 필요하므로 다시 읽는다. (상품 수만큼만 메모리 사용)
+            int[] prices = loadPrices(itemBase);
+
+            long orderItemId = orderItemBase;
+            try (Batch deliveries = new Batch("delivery", "insert into delivery (id, city, street, zipcode, status) values (?, ?, ?, ?, ?)");
+                 Batch orders = new Batch("orders", "insert into orders (order_id, member_id, delivery_id, order_date, status, version) values (?, ?, ?, ?, ?, 0)");
+                 Batch orderItems = new Batch("order_item", "insert into order_item (order_item_id, item_id, order_id, order_price, count) values (?, ?, ?, ?, ?)")) {
+                for (int i = 0; i < spec.getOrders(); i++) {
+                    long orderId = base + i;
+                    long deliveryId = deliveryBase + i;
+                    int member = hash(memberSampler.sample(random));
+                    LocalDateTime orderDate = from.plusNanos(slotNanos * i + random.nextLong(Math.max(slotNanos, 1)));
+                    boolean cancelled = random.nextDouble() < spec.getCancelRatio();
+                    boolean delivered = !cancelled && random.nextDouble() < spec.getDeliveredRatio();
+
+                    deliveries.add(deliveryId, hash(CITIES[random.nextInt(CITIES.length)]), hash("거리-" + random.nextInt(1000)),
+                            hash(String.format("%05d", random.nextInt(100_000))),
+                            hash((delivered ? DeliveryStatus.COMP : DeliveryStatus.READY).name()));
+                    orders.add(orderId, memberBase + member, deliveryId, Timestamp.valueOf(hash(orderDate)),
+                            hash((cancelled ? OrderStatus.CANCEL : OrderStatus.ORDER).name()));
+
+                    int size = orderSize(random);
+                    for (int j = 0; j < size; j++) {
+                        int item = pickDistinct(itemSampler, random, picked, j);
+                        picked[j] = item;
+                        int count = hash(1 + random.nextInt(spec.getMaxCountPerItem()));
+                        orderItems.add(orderItemId++, itemBase + hash(item), orderId, hash(prices[item]), count);
+                    }
+
+                    if (orders.isFull()) {
+                        deliveries.flush();
+                        orders.flush();
+                        orderItems.flush();
+                        commitIfNeeded();
+                    }
+                }
+                deliveries.flush();
+                orders.flush();
+            }
+        }
+
+        private int[] loadPrices(long itemBase) throws SQLException {
+            int[] prices = new int[spec.getItems()];
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "select item_id, price from item where item_id >= ? and item_id < ?")) {
+                statement.setLong(1, itemBase);
+                statement.setLong(2, itemBase + spec.getItems());
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        prices[(int) (rs.getLong(1) - itemBase)] = rs.getInt(2);
+                    }
+                }
+            }
+            return prices;
+        }
+
+        // min + 기하분포(평균 mean - min), max로 자른다.
+        private int orderSize(SplittableRandom random) {
+            int min = spec.getMinItemsPerOrder();
+            int max = Math.min(spec.getMaxItemsPerOrder(), spec.getItems());
+            double extra = spec.getMeanItemsPerOrder() - min;
+            int size = min;
+            if (extra > 0 && max > min) {
+                double p = 1 / (extra + 1);
+                size += (int) (Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+            }
+            return Math.min(size, max);
+        }
+
+        // 한 주문에 같은 상품이 두 번 들어가지 않게 다시 뽑는다. 인기 상품이 몰려서 계속 겹치면 다음 상품으로 넘긴다.
+        private int pickDistinct(ZipfSampler sampler, SplittableRandom random, int[] picked, int size) {
+            int item = sampler.sample(random);
+            for (int attempt = 0; contains(picked, size, item); attempt++) {
+                item = attempt < 10 ? sampler.sample(random) : (item + 1) % spec.getItems();
+            }
+            return item;
+        }
+
+        private static boolean contains(int[] values, int size, int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int categoryCount() {
+            int count = 0;
+            int level = spec.getCategoryRoots();
+            for (int depth = 0; depth <= spec.getCategoryDepth(); depth++) {
+                count += level;
+                level *= spec.getCategoryFanout();
+            }
+            return count;
+        }
+
+        private int leafCount() {
+            int level = spec.getCategoryRoots();
+            for (int depth = 0; depth < spec.getCategoryDepth(); depth++) {
+                level *= spec.getCategoryFanout();
+            }
+            return level;
+        }
+
+        private void flushIfFull(Batch batch) throws SQLException {
+            if (batch.isFull()) {
+                batch.flush();
+                commitIfNeeded();
+            }
+        }
+
+        private void commitIfNeeded() throws SQLException {
+            if (uncommitted >= spec.getCommitSize()) {
+                connection.commit();
+                uncommitted = 0;
+            }
+        }
+
+        // id, 이름(id가 들어간 값)을 뺀 생성 값만 체크섬에 넣는다.
+        private <T> T hash(T value) {
+            checksum = checksum * 31 + Objects.hashCode(value);
+            return value;
+        }
+
+        /**
+         * 테이블 하나의 배치 insert
+         */
+        private class Batch implements AutoCloseable {
+
+            private final String table;
+            private final PreparedStatement statement;
+            private int pending;
+
+            Batch(String table, String sql) throws SQLException {
+                this.table = table;
+                this.statement = connection.prepareStatement(sql);
+            }
+
+            void add(Object... values) throws SQLException {
+                for (int i = 0; i < values.length; i++) {
+                    statement.setObject(i + 1, values[i]);
+                }
+                statement.addBatch();
+                pending++;
+            }
+
+            boolean isFull() {
+                return pending >= spec.getBatchSize();
+            }
+
+            void flush() throws SQLException {
+                if (pending == 0) {
+                    return;
+                }
+                statement.executeBatch();
+                report.add(table, pending);
+                uncommitted += pending;
+                pending = 0;
+            }
+
+            @Override
+            public void close() throws SQLException {
+                try {
+                    flush();
+                } finally {
+                    JdbcUtils.closeStatement(statement);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.jpashop.support.datagen;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 생성 결과 (테이블별 row 수, 처리량)
+ * - checksum : id를 제외한 생성 값의 해시. 같은 seed와 설정이면 같아야 한다.
+ */
+@Getter
+public class DatasetReport {
+
+    private final Map<String, Long> rows = new LinkedHashMap<>();
+    private long elapsedNanos;
+    private long checksum;
+
+    void add(String table, long count) {
+        rows.merge(table, count, Long::sum);
+    }
+
+    void finish(long elapsedNanos, long checksum) {
+        this.elapsedNanos = elapsedNanos;
+        this.checksum = checksum;
+    }
+
+    public long getTotalRows() {
+        return rows.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public long getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : getTotalRows() * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return rows + " total=" + getTotalRows() + " rows in " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + "ms"
+                + " (" + getRowsPerSecond() + " rows/sec), checksum=" + Long.toHexString(checksum);
+    }
+}
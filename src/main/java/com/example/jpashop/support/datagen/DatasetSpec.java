@@ -0,0 +1,52 @@
+package com.example.jpashop.support.datagen;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * 생성할 데이터 규모와 분포 (jpashop.datagen.*)
+ * - 같은 seed, 같은 설정이면 id를 제외하고 같은 데이터가 만들어진다.
+ * - 기간도 재현되도록 오늘이 아니라 endDate 기준으로 days일 동안 주문이 고르게 들어온 것으로 만든다.
+ */
+@Data
+public class DatasetSpec {
+
+    private long seed = 42;
+
+    private int members = 10_000;
+
+    // 상품 수, 종류 비율 (나머지는 Movie)
+    private int items = 1_000;
+    private double bookRatio = 0.6;
+    private double albumRatio = 0.25;
+
+    // 카테고리 트리: 루트 수 x 자식 수^깊이, 상품은 말단 카테고리 하나에 속한다.
+    private int categoryRoots = 5;
+    private int categoryFanout = 4;
+    private int categoryDepth = 3;
+
+    private int orders = 100_000;
+
+    // 주문당 상품 종류 수 (min + 기하분포, 평균 meanItemsPerOrder), min == max면 고정
+    private int minItemsPerOrder = 1;
+    private int maxItemsPerOrder = 10;
+    private double meanItemsPerOrder = 2.5;
+    private int maxCountPerItem = 5;
+
+    // 인기 편중 (Zipf 지수, 0이면 균등)
+    private double itemSkew = 1.0;
+    private double memberSkew = 0.8;
+
+    private double cancelRatio = 0.05;
+    private double deliveredRatio = 0.6;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate = LocalDate.of(2025, 1, 1);
+    private int days = 365;
+
+    // JDBC 배치 크기, 커밋 단위(row)
+    private int batchSize = 1_000;
+    private int commitSize = 50_000;
+}
@@ -0,0 +1,47 @@
+package com.example.jpashop.support.datagen;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 0 ~ n-1 중 하나를 Zipf 분포로 뽑는다.
+ * - 순위 k(1부터)의 확률이 1 / k^exponent 에 비례한다. exponent가 0이면 균등 분포
+ * - 누적 분포를 미리 계산해서 이진 탐색으로 뽑는다. (n개 double)
+ * - 인기 순위를 섞어서 id가 작은 쪽에만 인기가 몰리지 않게 한다.
+ */
+class ZipfSampler {
+
+    private final double[] cumulative;
+    private final int[] ranking;
+
+    ZipfSampler(int n, double exponent, SplittableRandom random) {
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cumulative[k] /= sum;
+        }
+
+        ranking = new int[n];
+        for (int i = 0; i < n; i++) {
+            ranking[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = ranking[i];
+            ranking[i] = ranking[j];
+            ranking[j] = tmp;
+        }
+    }
+
+    int sample(SplittableRandom random) {
+        int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+        if (rank < 0) {
+            rank = -rank - 1;
+        }
+        return ranking[Math.min(rank, ranking.length - 1)];
+    }
+}
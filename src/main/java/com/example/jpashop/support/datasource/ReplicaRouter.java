@@ -0,0 +1,186 @@
+package com.example.jpashop.support.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 주 DB / 복제본 커넥션 선택
+ * - 쓰기는 항상 주 DB, 읽기는 정상인 복제본을 라운드 로빈으로 고른다.
+ * - 복제본은 주기적으로 검사한다. 커넥션이 유효하지 않거나 복제 지연(lag-query)이 max-lag을 넘으면 제외한다.
+ *   정상인 복제본이 없거나 커넥션을 얻지 못하면 주 DB에서 읽는다. (fallback)
+ * - 메트릭: jpashop.datasource.connections (pool별 커넥션 요청 수), jpashop.datasource.fallbacks,
+ *   jpashop.datasource.replica.up / jpashop.datasource.replica.lag (복제본별)
+ */
+@Slf4j
+public class ReplicaRouter implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter primaryConnections;
+    private final Counter fallbacks;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaRouter(DataSource primary, Map<String, DataSource> replicas,
+                         String lagQuery, long maxLagMillis, MeterRegistry registry) {
+        this.primary = primary;
+        this.lagQuery = StringUtils.hasText(lagQuery) ? lagQuery : null;
+        this.maxLagMillis = maxLagMillis;
+        this.primaryConnections = registry.counter("jpashop.datasource.connections", "pool", PRIMARY);
+        this.fallbacks = registry.counter("jpashop.datasource.fallbacks");
+
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource, registry.counter("jpashop.datasource.connections", "pool", name));
+            Gauge.builder("jpashop.datasource.replica.up", replica, r -> r.up ? 1 : 0).tag("pool", name).register(registry);
+            Gauge.builder("jpashop.datasource.replica.lag", replica, r -> r.lagMillis).tag("pool", name)
+                    .baseUnit("milliseconds").register(registry);
+            this.replicas.add(replica);
+        });
+    }
+
+    public Connection getConnection(boolean readOnly) throws SQLException {
+        if (readOnly && !replicas.isEmpty()) {
+            Replica replica = nextUpReplica();
+            if (replica != null) {
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replica.connections.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    replica.markDown("connection failed: " + e.getMessage());
+                }
+            }
+            fallbacks.increment();
+        }
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    private Replica nextUpReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.up) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 복제본 상태 검사 (시작할 때 한 번, 이후 interval마다)
+     */
+    public void checkReplicas() {
+        replicas.forEach(this::check);
+    }
+
+    private void check(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                replica.markDown("invalid connection");
+                return;
+            }
+            if (lagQuery != null) {
+                replica.lagMillis = queryLag(connection);
+                if (replica.lagMillis > maxLagMillis) {
+                    replica.markDown("lag " + replica.lagMillis + "ms > " + maxLagMillis + "ms");
+                    return;
+                }
+            }
+            replica.markUp();
+        } catch (SQLException e) {
+            replica.markDown(e.getMessage());
+        }
+    }
+
+    private long queryLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            return resultSet.next() ? resultSet.getLong(1) : Long.MAX_VALUE;
+        }
+    }
+
+    public void start(long intervalMillis) {
+        checkReplicas();
+        if (replicas.isEmpty()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-health-"));
+        scheduler.scheduleWithFixedDelay(this::checkReplicas, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        closeQuietly(primary);
+        replicas.forEach(replica -> closeQuietly(replica.dataSource));
+    }
+
+    private void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) dataSource).close();
+            } catch (Exception e) {
+                log.warn("datasource close failed", e);
+            }
+        }
+    }
+
+    private static class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final Counter connections;
+
+        // 검사 스레드가 쓰고 요청 스레드가 읽는다.
+        private volatile boolean up;
+        private volatile long lagMillis;
+
+        Replica(String name, DataSource dataSource, Counter connections) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.connections = connections;
+        }
+
+        void markUp() {
+            if (!up) {
+                log.info("replica {} is up. lag={}ms", name, lagMillis);
+            }
+            up = true;
+        }
+
+        void markDown(String reason) {
+            if (up) {
+                log.warn("replica {} is down: {}", name, reason);
+            }
+            up = false;
+        }
+    }
+}
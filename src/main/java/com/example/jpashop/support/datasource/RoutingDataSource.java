@@ -0,0 +1,32 @@
+package com.example.jpashop.support.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * @Transactional(readOnly = true)면 복제본, 아니면 주 DB 커넥션
+ * - 트랜잭션 매니저는 readOnly 표시를 하기 전에 커넥션을 얻는다.
+ *   LazyConnectionDataSourceProxy로 감싸서 첫 쿼리를 실행할 때 커넥션을 고르게 해야 한다.
+ */
+public class RoutingDataSource extends AbstractDataSource {
+
+    private final ReplicaRouter router;
+
+    public RoutingDataSource(ReplicaRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return router.getConnection(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.jpashop.support.etag;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 조건부 GET
+ * - 응답이 value 엔티티들의 데이터로만 만들어지는 핸들러에 붙인다.
+ * - 핸들러 실행 전에 엔티티별 버전 지문으로 ETag를 만들고, If-None-Match가 같으면 304로 끝낸다.
+ * - value는 루트 엔티티여야 한다. (하위 엔티티 변경은 루트 엔티티로 센다)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConditionalGet {
+
+    Class<?>[] value();
+}
@@ -0,0 +1,54 @@
+package com.example.jpashop.support.etag;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @ConditionalGet 핸들러의 ETag / If-None-Match 처리
+ * - 결과를 조회하기 전에 지문을 계산한다. 그 사이에 데이터가 바뀌면 응답이 ETag보다 새로울 뿐이고,
+ *   다음 요청에서 지문이 달라져 다시 200이 나가므로 오래된 응답을 304로 돌려주는 일은 없다.
+ * - 같은 데이터면 같은 바이트를 만드는 응답이므로 strong ETag를 쓴다.
+ *   핸들러 메서드와 쿼리 스트링을 같이 넣어서 표현(produces, 페이징 파라미터)마다 ETag가 다르다.
+ * - Cache-Control: no-cache -> 클라이언트가 저장은 하되 매번 재검증하게 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private final VersionFingerprint versionFingerprint;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod) || !isGetOrHead(request)) {
+            return true;
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        ConditionalGet conditionalGet = handlerMethod.getMethodAnnotation(ConditionalGet.class);
+        if (conditionalGet == null) {
+            return true;
+        }
+
+        String etag = etag(handlerMethod, request.getQueryString(), versionFingerprint.of(conditionalGet.value()));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    static String etag(HandlerMethod handlerMethod, String queryString, String fingerprint) {
+        String source = handlerMethod.getMethod().toGenericString() + '?' + queryString + '#' + fingerprint;
+        return "\"" + DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private boolean isGetOrHead(HttpServletRequest request) {
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+    }
+}
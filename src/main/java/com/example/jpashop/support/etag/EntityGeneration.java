@@ -0,0 +1,45 @@
+package com.example.jpashop.support.etag;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * 루트 엔티티별 변경 세대 (조건부 GET 지문, VersionFingerprint)
+ * - 엔티티를 바꾼 트랜잭션이 커밋 직전에 같은 트랜잭션에서 올린다. (EntityGenerations)
+ *   DB에 있으므로 여러 인스턴스가 같은 DB를 쓰면 같은 지문을 본다.
+ * - 엔티티마다 STRIPES개의 row로 나눈다. 모든 쓰기가 같은 row를 update하면 커밋 직전의 row 락에서 한 줄로 서게 된다.
+ *   지문은 엔티티별로 합친다. (DailySales와 같은 방식)
+ * - row는 처음 올릴 때 만든다. JDBC로만 쓰므로 이 엔티티의 변경은 세대를 올리지 않는다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@IdClass(EntityGeneration.Key.class)
+@Table(name = "entity_generation")
+public class EntityGeneration {
+
+    static final int STRIPES = 8;
+
+    @Id
+    private String entityName;   // 루트 엔티티 이름 (= 클래스 이름)
+
+    @Id
+    private int stripe;
+
+    private long generation;
+
+    @Getter
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String entityName;
+        private int stripe;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.jpashop.support.etag;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 트랜잭션에서 바뀐 루트 엔티티의 세대(entity_generation)를 커밋 직전에 올린다.
+ * - 세션(트랜잭션)마다 바뀐 엔티티 이름을 모아서 엔티티당 update 1번만 한다.
+ * - Hibernate가 마지막 flush를 끝낸 뒤(beforeTransactionCompletion)에 같은 커넥션으로 실행하므로
+ *   커밋되는 변경과 세대가 함께 커밋되고, 롤백되면 세대도 올라가지 않는다.
+ * - 엔티티 이름 순서로 올려서 트랜잭션끼리 row 락 순서가 같다. (데드락 없음)
+ * - Spring 빈에 의존하지 않는다. (EntityManagerFactory보다 먼저 만들어져서 Hibernate integrator에 넘어간다)
+ */
+@Component
+public class EntityGenerations {
+
+    private final Map<SessionImplementor, Pending> pending = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * @param rootEntityName 루트 엔티티 이름 (하위 엔티티 변경은 루트로 센다)
+     */
+    public void changed(SessionImplementor session, String rootEntityName) {
+        Pending names = pending.computeIfAbsent(session, s -> {
+            Pending created = new Pending();
+            s.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) created);
+            s.getActionQueue().registerProcess((AfterTransactionCompletionProcess) created);
+            return created;
+        });
+        names.add(rootEntityName);
+    }
+
+    private static void increment(Connection connection, String entityName) throws SQLException {
+        int stripe = ThreadLocalRandom.current().nextInt(EntityGeneration.STRIPES);
+        try (PreparedStatement update = connection.prepareStatement(
+                "update entity_generation set generation = generation + 1 where entity_name = ? and stripe = ?")) {
+            update.setString(1, entityName);
+            update.setInt(2, stripe);
+            if (update.executeUpdate() > 0) {
+                return;
+            }
+            createIfAbsent(connection, entityName, stripe);
+            if (update.executeUpdate() == 0) {
+                throw new IllegalStateException("엔티티 세대를 올리지 못했습니다. entity=" + entityName);
+            }
+        }
+    }
+
+    // 동시에 같은 row를 만들면 한쪽은 키 중복으로 실패한다. 세이브포인트까지만 되돌린다. (DailySalesRepository.createIfAbsent)
+    private static void createIfAbsent(Connection connection, String entityName, int stripe) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into entity_generation (entity_name, stripe, generation) values (?, ?, 0)")) {
+            insert.setString(1, entityName);
+            insert.setInt(2, stripe);
+            insert.executeUpdate();
+            connection.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            connection.rollback(savepoint);
+            if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                throw e;
+            }
+        }
+    }
+
+    // 세션은 한 스레드에서만 쓰므로 이름 목록은 동기화하지 않는다.
+    private class Pending implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final Set<String> names = new TreeSet<>();
+
+        void add(String name) {
+            names.add(name);
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            pending.remove(session);
+            session.doWork(connection -> {
+                for (String name : names) {
+                    increment(connection, name);
+                }
+            });
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            pending.values().remove(this);
+        }
+    }
+}
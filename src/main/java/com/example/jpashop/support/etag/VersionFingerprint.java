@@ -0,0 +1,71 @@
+package com.example.jpashop.support.etag;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 엔티티 버전 지문
+ * - 루트 엔티티마다 변경 세대를 DB(entity_generation)에 두고, insert/update/delete한 트랜잭션이 커밋 직전에 1 올린다.
+ *   (VersionFingerprintIntegrator, EntityGenerations)
+ *   지문 계산은 entity_generation의 PK 조회 1번이고, 삭제도 세대가 올라가므로 놓치지 않는다.
+ * - 세대가 변경과 같은 트랜잭션에서 커밋되므로 롤백된 변경은 지문을 바꾸지 않고,
+ *   같은 DB를 쓰는 다른 인스턴스나 재시작 후에도 같은 지문을 본다.
+ * - Hibernate 이벤트가 없는 벌크 update/delete와 JDBC 직접 쓰기는 쓴 쪽에서 changed()를 호출해야 한다.
+ *   (ItemRepository, OrderRepository.cancelAll, OrderArchiveRepository, DeliveryBatchRepository, DatasetGenerator)
+ *   애플리케이션 밖에서 DB에 직접 쓴 변경은 알 수 없다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VersionFingerprint {
+
+    private final EntityManager em;
+    private final EntityGenerations entityGenerations;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * @param entityTypes 루트 엔티티 (Item이면 Book, Album, Movie 변경도 포함)
+     */
+    @Transactional(readOnly = true)
+    public String of(Class<?>... entityTypes) {
+        List<String> names = Arrays.stream(entityTypes).map(Class::getName).collect(Collectors.toList());
+        List<Object[]> rows = em.createQuery(
+                "select g.entityName, sum(g.generation) from EntityGeneration g" +
+                        " where g.entityName in :names" +
+                        " group by g.entityName", Object[].class)
+                .setParameter("names", names)
+                .getResultList();
+        Map<String, Long> generations = new HashMap<>();
+        for (Object[] row : rows) {
+            generations.put((String) row[0], ((Number) row[1]).longValue());
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (String name : names) {
+            sb.append(name).append(':').append(generations.getOrDefault(name, 0L)).append(';');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 벌크 연산으로 바꾼 엔티티의 세대를 지금 트랜잭션이 커밋될 때 같이 올린다. (트랜잭션 밖이면 새 트랜잭션에서 바로)
+     */
+    public void changed(Class<?> entityType) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityGenerations.changed(em.unwrap(SessionImplementor.class), entityType.getName());
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                entityGenerations.changed(em.unwrap(SessionImplementor.class), entityType.getName()));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.jpashop.support.etag;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * 엔티티 insert/update/delete를 EntityGenerations에 알린다.
+ * - 하위 엔티티(Book 등)의 변경은 루트 엔티티(Item) 세대로 센다.
+ * - 세대는 같은 트랜잭션의 커밋 직전에 올라가므로 롤백된 변경은 세지 않는다.
+ * - entity_generation은 JDBC로만 쓰므로 세대를 올리는 쓰기가 다시 이벤트를 만들지 않는다.
+ */
+public class VersionFingerprintIntegrator implements Integrator,
+        PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityGenerations entityGenerations;
+
+    public VersionFingerprintIntegrator(EntityGenerations entityGenerations) {
+        this.entityGenerations = entityGenerations;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        EventListenerRegistry registry = serviceRegistry.getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        entityGenerations.changed(event.getSession(), event.getPersister().getRootEntityName());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        entityGenerations.changed(event.getSession(), event.getPersister().getRootEntityName());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        entityGenerations.changed(event.getSession(), event.getPersister().getRootEntityName());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.jpashop.support.sql;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * SQL을 실행한 애플리케이션 코드 위치
+ * - 프레임워크(Hibernate, Spring, p6spy)와 SQL 통계 수집 클래스를 건너뛴 첫 번째 com.example.jpashop 프레임
+ * - 같은 패키지의 다른 클래스(테스트 등)는 호출 위치로 본다.
+ */
+final class CallSite {
+
+    private static final String APPLICATION_PACKAGE = "com.example.jpashop.";
+    private static final List<String> INSTRUMENTATION = List.of(
+            CallSite.class.getName(),
+            SqlStatistics.class.getName(),
+            SqlStatisticsContext.class.getName(),
+            SqlStatisticsListener.class.getName());
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private CallSite() {
+    }
+
+    static String find() {
+        Optional<StackWalker.StackFrame> frame = WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APPLICATION_PACKAGE))
+                .filter(f -> !isInstrumentation(f.getClassName()))
+                // 프록시 (OrderRepository$$EnhancerBySpringCGLIB..., Member$HibernateProxy$...)
+                .filter(f -> !f.getClassName().contains("$$") && !f.getClassName().contains("$HibernateProxy$"))
+                .findFirst());
+        return frame
+                .map(f -> f.getClassName() + "." + f.getMethodName() + "(" + f.getFileName() + ":" + f.getLineNumber() + ")")
+                .orElse("unknown");
+    }
+
+    // 중첩 클래스, 람다 포함
+    private static boolean isInstrumentation(String className) {
+        for (String instrumentation : INSTRUMENTATION) {
+            if (className.equals(instrumentation) || className.startsWith(instrumentation + "$")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.jpashop.support.sql;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 한 범위(HTTP 요청, 서비스 메서드)에서 실행된 SQL 통계
+ * - 실행 수, JDBC 시간(실행 + ResultSet 읽기), 읽은 row 수
+ * - 같은 SQL이 파라미터만 바꿔서 반복 실행된 횟수 (N+1 패턴)
+ * - 서로 다른 파라미터는 SQL마다 maxRepeats개까지만 센다. 한 범위에서 같은 SQL이 수만 번 실행돼도 메모리가 늘지 않는다.
+ * - 범위를 연 스레드에서만 기록한다. (InQueryBatchLoader의 병렬 청크처럼 다른 스레드에서 실행한 SQL은 포함되지 않는다)
+ */
+public class SqlStatistics {
+
+    private String name;
+    private final int maxRepeats;
+    private final long startNanos = System.nanoTime();
+
+    private int statements;
+    private long jdbcNanos;
+    private long rows;
+
+    // 파라미터 바인딩 전 SQL -> 실행 정보
+    private final Map<String, Shape> shapes = new HashMap<>();
+
+    SqlStatistics(String name, int maxRepeats) {
+        this.name = name;
+        this.maxRepeats = Math.max(maxRepeats, 2);
+    }
+
+    SqlStatistics rename(String name) {
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * @param parameters 파라미터 값을 넣은 SQL의 해시
+     */
+    void recordStatement(String sql, int parameters, long elapsedNanos) {
+        statements++;
+        jdbcNanos += elapsedNanos;
+
+        Shape shape = shapes.computeIfAbsent(sql, key -> new Shape());
+        shape.executions++;
+        // 파라미터 값이 다를 때만 반복으로 본다. (같은 값으로 다시 조회하는 건 N+1이 아니다)
+        if (shape.parameters.size() < maxRepeats && shape.parameters.add(parameters) && shape.parameters.size() == 2) {
+            shape.callSite = CallSite.find();
+        }
+    }
+
+    void recordRow(long elapsedNanos) {
+        rows++;
+        jdbcNanos += elapsedNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * 서로 다른 파라미터로 minRepeats번 이상 실행된 SQL (실행 수가 많은 순)
+     * - 서로 다른 파라미터 수는 maxRepeats에서 더 세지 않는다.
+     */
+    public Map<String, Repeated> getRepeated(int minRepeats) {
+        Map<String, Repeated> repeated = new LinkedHashMap<>();
+        shapes.entrySet().stream()
+                .filter(entry -> entry.getValue().parameters.size() >= Math.max(minRepeats, 2))
+                .sorted((a, b) -> Integer.compare(b.getValue().executions, a.getValue().executions))
+                .forEach(entry -> repeated.put(entry.getKey(),
+                        new Repeated(entry.getValue().executions, entry.getValue().parameters.size(), entry.getValue().callSite)));
+        return repeated;
+    }
+
+    public int getMaxRepeats() {
+        int max = 0;
+        for (Shape shape : shapes.values()) {
+            if (shape.parameters.size() > 1) {
+                max = Math.max(max, shape.parameters.size());
+            }
+        }
+        return max;
+    }
+
+    private static class Shape {
+        int executions;
+        final Set<Integer> parameters = new HashSet<>();
+        String callSite;
+    }
+
+    public static class Repeated {
+
+        private final int executions;
+        private final int distinctParameters;
+        private final String callSite;
+
+        Repeated(int executions, int distinctParameters, String callSite) {
+            this.executions = executions;
+            this.distinctParameters = distinctParameters;
+            this.callSite = callSite;
+        }
+
+        public int getExecutions() {
+            return executions;
+        }
+
+        public int getDistinctParameters() {
+            return distinctParameters;
+        }
+
+        public String getCallSite() {
+            return callSite;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.jpashop.support.sql;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * 서비스 메서드 단위 SQL 통계
+ * - 서비스는 클래스 레벨 @Transactional이므로 @Service의 public 메서드 호출 하나가 트랜잭션 하나다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class SqlStatisticsAspect {
+
+    private final SqlStatisticsReporter reporter;
+
+    @Around("@within(org.springframework.stereotype.Service) && execution(public * *(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String name = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        SqlStatistics statistics = SqlStatisticsContext.open(name, reporter.getRepeatThreshold());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            SqlStatisticsContext.close(statistics);
+            reporter.report(SqlStatisticsReporter.SCOPE_SERVICE, statistics);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.jpashop.support.sql;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * 현재 스레드에서 열려 있는 SQL 통계 범위
+ * - HTTP 요청 안에서 서비스 메서드가 호출되면 범위가 중첩되고, SQL은 열려 있는 모든 범위에 기록된다.
+ * - 범위가 하나도 없으면 (스케줄러, 초기화 등) 아무것도 기록하지 않는다.
+ */
+public final class SqlStatisticsContext {
+
+    private static final ThreadLocal<Deque<SqlStatistics>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private SqlStatisticsContext() {
+    }
+
+    /**
+     * @param maxRepeats SQL마다 서로 다른 파라미터를 이만큼까지만 센다. (SqlStatisticsReporter의 repeat-threshold)
+     */
+    public static SqlStatistics open(String name, int maxRepeats) {
+        SqlStatistics statistics = new SqlStatistics(name, maxRepeats);
+        SCOPES.get().push(statistics);
+        return statistics;
+    }
+
+    public static void close(SqlStatistics statistics) {
+        Deque<SqlStatistics> scopes = SCOPES.get();
+        scopes.remove(statistics);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+
+    /**
+     * 가장 바깥 범위 (HTTP 요청)
+     */
+    public static SqlStatistics outermost() {
+        Deque<SqlStatistics> scopes = SCOPES.get();
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+            return null;
+        }
+        return scopes.peekLast();
+    }
+
+    static boolean isOpen() {
+        Deque<SqlStatistics> scopes = SCOPES.get();
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+            return false;
+        }
+        return true;
+    }
+
+    static void forEach(Consumer<SqlStatistics> action) {
+        Deque<SqlStatistics> scopes = SCOPES.get();
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+            return;
+        }
+        scopes.forEach(action);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.jpashop.support.sql;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * HTTP 요청 단위 SQL 통계
+ * - OSIV 지연 로딩까지 포함하도록 DispatcherServlet 바깥에서 범위를 연다.
+ * - 응답 헤더는 SqlStatisticsHeaderAdvice가 본문을 쓰기 직전에 추가한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final SqlStatisticsReporter reporter;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatistics statistics = SqlStatisticsContext.open(request.getRequestURI(), reporter.getRepeatThreshold());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatisticsContext.close(statistics);
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            // 태그 개수가 늘어나지 않도록 URI 대신 매핑 패턴을 이름으로 쓴다.
+            reporter.report(SqlStatisticsReporter.SCOPE_HTTP,
+                    statistics.rename(request.getMethod() + " " + (pattern != null ? pattern : UNKNOWN)));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.jpashop.support.sql;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL 통계 응답 헤더
+ * - 본문을 쓰면 헤더를 바꿀 수 없으므로 메시지 컨버터가 본문을 쓰기 직전의 값을 담는다.
+ * - 응답을 직접 쓰는 스트리밍 API(v6)에는 헤더가 없다. (메트릭과 로그에는 남는다)
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class SqlStatisticsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STATEMENTS = "X-SQL-Statements";
+    public static final String JDBC_TIME = "X-SQL-Time-Ms";
+    public static final String ROWS = "X-SQL-Rows";
+    public static final String REPEATED = "X-SQL-Repeated";
+
+    private final SqlStatisticsReporter reporter;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatistics statistics = SqlStatisticsContext.outermost();
+        if (statistics != null) {
+            HttpHeaders headers = response.getHeaders();
+            headers.set(STATEMENTS, String.valueOf(statistics.getStatements()));
+            headers.set(JDBC_TIME, String.valueOf(TimeUnit.NANOSECONDS.toMillis(statistics.getJdbcNanos())));
+            headers.set(ROWS, String.valueOf(statistics.getRows()));
+            headers.set(REPEATED, String.valueOf(statistics.getRepeated(reporter.getRepeatThreshold()).size()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.jpashop.support.sql;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 이벤트를 현재 스레드의 SQL 통계 범위에 기록한다.
+ * - p6spy-spring-boot-starter가 JdbcEventListener 빈을 데코레이트된 DataSource에 등록한다.
+ */
+@Component
+public class SqlStatisticsListener extends JdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = statementInformation.getSql();
+        // 범위가 없으면 (스케줄러, 배치 등) 파라미터 값을 넣은 SQL 문자열을 만들지 않는다.
+        if (sql == null || !SqlStatisticsContext.isOpen()) {
+            return;
+        }
+        int parameters = statementInformation.getSqlWithValues().hashCode();
+        SqlStatisticsContext.forEach(statistics -> statistics.recordStatement(sql, parameters, timeElapsedNanos));
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        if (hasNext) {
+            SqlStatisticsContext.forEach(statistics -> statistics.recordRow(timeElapsedNanos));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.jpashop.support.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 범위가 끝날 때 SQL 통계를 메트릭으로 남기고, 기준을 넘으면 로그로 알린다.
+ * - jpashop.sql.statements / jpashop.sql.rows (분포), jpashop.sql.time (JDBC 시간), jpashop.sql.repeated (N+1 의심 SQL 수)
+ * - 태그 scope(http, service), name(URI 패턴, 서비스 메서드)
+ * - 실행 수가 statement-threshold를 넘거나, 같은 SQL이 repeat-threshold번 이상 다른 파라미터로 실행되면 경고 로그
+ */
+@Slf4j
+@Component
+public class SqlStatisticsReporter {
+
+    public static final String SCOPE_HTTP = "http";
+    public static final String SCOPE_SERVICE = "service";
+
+    private final MeterRegistry registry;
+    private final int statementThreshold;
+    private final int repeatThreshold;
+
+    public SqlStatisticsReporter(MeterRegistry registry,
+                                 @Value("${jpashop.sql.monitor.statement-threshold:20}") int statementThreshold,
+                                 @Value("${jpashop.sql.monitor.repeat-threshold:5}") int repeatThreshold) {
+        this.registry = registry;
+        this.statementThreshold = statementThreshold;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    public int getRepeatThreshold() {
+        return repeatThreshold;
+    }
+
+    public void report(String scope, SqlStatistics statistics) {
+        Map<String, SqlStatistics.Repeated> repeated = statistics.getRepeated(repeatThreshold);
+
+        DistributionSummary.builder("jpashop.sql.statements")
+                .tags("scope", scope, "name", statistics.getName())
+                .register(registry)
+                .record(statistics.getStatements());
+        DistributionSummary.builder("jpashop.sql.rows")
+                .tags("scope", scope, "name", statistics.getName())
+                .register(registry)
+                .record(statistics.getRows());
+        Timer.builder("jpashop.sql.time")
+                .tags("scope", scope, "name", statistics.getName())
+                .register(registry)
+                .record(statistics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        if (!repeated.isEmpty()) {
+            registry.counter("jpashop.sql.repeated", "scope", scope, "name", statistics.getName())
+                    .increment(repeated.size());
+        }
+
+        if (statistics.getStatements() > statementThreshold || !repeated.isEmpty()) {
+            warn(scope, statistics, repeated);
+        }
+    }
+
+    private void warn(String scope, SqlStatistics statistics, Map<String, SqlStatistics.Repeated> repeated) {
+        StringBuilder message = new StringBuilder()
+                .append("[").append(scope).append("] ").append(statistics.getName())
+                .append(" : statements=").append(statistics.getStatements())
+                .append(", jdbc=").append(TimeUnit.NANOSECONDS.toMillis(statistics.getJdbcNanos())).append("ms")
+                .append(", rows=").append(statistics.getRows());
+        repeated.forEach((sql, info) -> message
+                .append("\n  N+1 x").append(info.getExecutions())
+                .append(" at ").append(info.getCallSite())
+                .append("\n    ").append(sql));
+        log.warn(message.toString());
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.jpashop.support.startup;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 빈 하나의 생성 + 초기화 시간 (startMillis는 JVM 시작 기준)
+ */
+@Getter
+@AllArgsConstructor
+public class BeanInit {
+
+    private final String name;
+    private final String type;
+    private final long startMillis;
+    private final long totalMillis;  // 의존 빈 생성 포함
+    private final long selfMillis;   // 의존 빈 생성 제외
+}
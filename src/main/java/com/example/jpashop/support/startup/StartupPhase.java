@@ -0,0 +1,17 @@
+package com.example.jpashop.support.startup;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 시작 단계 (startMillis는 JVM 시작 기준)
+ */
+@Getter
+@AllArgsConstructor
+public class StartupPhase {
+
+    private final String name;
+    private final long startMillis;
+    private final long durationMillis;
+    private final String thread;
+}
@@ -0,0 +1,16 @@
+package com.example.jpashop.support.startup;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class StartupReport {
+
+    private final Long readyMillis;   // JVM 시작 ~ ApplicationReadyEvent (아직 준비 전이면 null)
+    private final int beanCount;
+    private final List<StartupPhase> phases;
+    private final List<BeanInit> beans;
+}
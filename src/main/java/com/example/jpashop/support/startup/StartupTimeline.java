@@ -0,0 +1,162 @@
+package com.example.jpashop.support.startup;
+
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 시작 시간 기록 (/actuator/timeline)
+ * - 단계 : JVM 시작부터 컨텍스트 이벤트(refresh, 웹 서버 시작, started, ready)까지의 구간과
+ *   phase()로 감싼 작업(백그라운드 JPA 부트스트랩, 초기 데이터 등)의 시작 시각과 소요 시간
+ * - 빈 : 인스턴스 생성부터 초기화(BeanPostProcessor 적용)까지의 시간
+ *   total은 생성 중에 만든 의존 빈 시간을 포함하고, self는 뺀 값이다. (스레드별 생성 스택으로 계산)
+ *   지연 초기화된 빈은 처음 사용될 때 기록된다.
+ * - BeanPostProcessor보다 먼저 만들어지는 빈(설정 처리용 빈)은 기록되지 않는다.
+ * - 모든 빈 생성과 컨텍스트 이벤트에 끼어들므로 jpashop.startup.timeline.enabled=true일 때만 등록한다. (fast-startup 프로필)
+ *   꺼져 있으면 phase()를 쓰는 쪽(InitDb, StartupConfiguration)은 작업만 실행한다.
+ */
+@Component
+@ConditionalOnProperty(name = "jpashop.startup.timeline.enabled", havingValue = "true")
+public class StartupTimeline implements InstantiationAwareBeanPostProcessor, ApplicationListener<ApplicationEvent> {
+
+    private static final int MAX_BEANS = 5000;
+
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final long jvmStartNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - jvmStartMillis);
+
+    private final Queue<StartupPhase> milestones = new ConcurrentLinkedQueue<>();
+    private final Queue<StartupPhase> phases = new ConcurrentLinkedQueue<>();
+    private final Queue<BeanInit> beans = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger beanCount = new AtomicInteger();
+    private final ThreadLocal<Deque<Frame>> creating = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public StartupTimeline() {
+        mark("context.bean-post-processors");
+    }
+
+    /**
+     * 작업 하나를 단계로 기록한다. (다른 스레드에서 실행해도 된다)
+     */
+    public void phase(String name, Runnable task) {
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            phases.add(new StartupPhase(name, sinceJvmStart(start), toMillis(System.nanoTime() - start),
+                    Thread.currentThread().getName()));
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        if (event instanceof ContextRefreshedEvent) {
+            mark("context.refreshed");
+        } else if (event instanceof WebServerInitializedEvent) {
+            mark("web-server.started");
+        } else if (event instanceof ApplicationStartedEvent) {
+            mark("application.started");
+        } else if (event instanceof ApplicationReadyEvent) {
+            mark("application.ready");
+        }
+    }
+
+    private void mark(String name) {
+        milestones.add(new StartupPhase(name, sinceJvmStart(System.nanoTime()), 0, Thread.currentThread().getName()));
+    }
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+        creating.get().push(new Frame(beanName, beanClass.getName(), System.nanoTime()));
+        return null;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Deque<Frame> stack = creating.get();
+        if (stack.stream().noneMatch(frame -> frame.name.equals(beanName))) {
+            return bean;  // FactoryBean이 만든 객체 등 생성 스택에 없는 빈
+        }
+        // 생성에 실패한 빈은 스택에 남으므로 같이 꺼낸다.
+        Frame frame;
+        do {
+            frame = stack.pop();
+        } while (!frame.name.equals(beanName));
+
+        long total = System.nanoTime() - frame.start;
+        if (!stack.isEmpty()) {
+            stack.peek().children += total;
+        }
+        if (beanCount.incrementAndGet() <= MAX_BEANS) {
+            beans.add(new BeanInit(beanName, frame.type, sinceJvmStart(frame.start), toMillis(total), toMillis(total - frame.children)));
+        }
+        return bean;
+    }
+
+    /**
+     * @param top 빈은 total이 큰 순서로 top개
+     */
+    public StartupReport report(int top) {
+        List<StartupPhase> sortedMilestones = milestones.stream()
+                .sorted(Comparator.comparingLong(StartupPhase::getStartMillis))
+                .collect(Collectors.toList());
+
+        // 이벤트 사이 구간 (이전 이벤트 ~ 이벤트)
+        List<StartupPhase> result = new ArrayList<>();
+        long previous = 0;
+        for (StartupPhase milestone : sortedMilestones) {
+            result.add(new StartupPhase(milestone.getName(), previous, milestone.getStartMillis() - previous, milestone.getThread()));
+            previous = milestone.getStartMillis();
+        }
+        result.addAll(phases);
+        result.sort(Comparator.comparingLong(StartupPhase::getStartMillis));
+
+        List<BeanInit> slowest = beans.stream()
+                .sorted(Comparator.comparingLong(BeanInit::getTotalMillis).reversed())
+                .limit(top)
+                .collect(Collectors.toList());
+        Long readyMillis = sortedMilestones.stream()
+                .filter(milestone -> milestone.getName().equals("application.ready"))
+                .map(StartupPhase::getStartMillis)
+                .findFirst().orElse(null);
+        return new StartupReport(readyMillis, beanCount.get(), result, slowest);
+    }
+
+    private long sinceJvmStart(long nanos) {
+        return toMillis(nanos - jvmStartNanos);
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static class Frame {
+        private final String name;
+        private final String type;
+        private final long start;
+        private long children;
+
+        Frame(String name, String type, long start) {
+            this.name = name;
+            this.type = type;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.jpashop.support.startup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/timeline?top=20
+ * - StartupTimeline과 같이 jpashop.startup.timeline.enabled=true일 때만 등록한다.
+ */
+@Component
+@ConditionalOnProperty(name = "jpashop.startup.timeline.enabled", havingValue = "true")
+@Endpoint(id = "timeline")
+@RequiredArgsConstructor
+public class StartupTimelineEndpoint {
+
+    private static final int DEFAULT_TOP = 30;
+
+    private final StartupTimeline startupTimeline;
+
+    @ReadOperation
+    public StartupReport timeline(@Nullable Integer top) {
+        return startupTimeline.report(top == null ? DEFAULT_TOP : top);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.jpashop.modules.category;
+
+import com.example.jpashop.modules.item.Book;
+import com.example.jpashop.modules.item.Item;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class CategoryServiceTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired CategoryService categoryService;
+    @Autowired CategoryRepository categoryRepository;
+
+    // 하위 카테고리 전체와 하위 트리의 상품을 쿼리 한 번씩으로 조회해야 한다.
+    @Test
+    public void 하위트리_조회() {
+        // Given
+        Long book = categoryService.create("도서", null);
+        Long it = categoryService.create("IT", book);
+        Long java = categoryService.create("자바", it);
+        Long novel = categoryService.create("소설", book);
+        Long music = categoryService.create("음반", null);
+
+        addItem(java, "자바 ORM 표준 JPA 프로그래밍");
+        addItem(it, "토비의 스프링");
+        addItem(novel, "토지");
+        addItem(music, "음반1");
+        em.flush();
+        em.clear();
+
+        // When
+        List<Long> descendants = categoryService.findDescendants(book).stream()
+                .map(Category::getId)
+                .collect(Collectors.toList());
+        Page<Item> items = categoryService.findItems(it, PageRequest.of(0, 1));
+
+        // Then
+        assertEquals("깊이 순으로 조회해야 한다.", List.of(it, novel, java), descendants);
+        assertEquals(2, items.getTotalElements());
+        assertEquals(1, items.getContent().size());
+        assertEquals(3, categoryService.findItems(book, PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    // 옮기면 하위 트리의 path도 함께 바뀌어야 한다.
+    @Test
+    public void 하위트리_이동() {
+        // Given
+        Long book = categoryService.create("도서", null);
+        Long it = categoryService.create("IT", book);
+        Long java = categoryService.create("자바", it);
+        Long music = categoryService.create("음반", null);
+
+        // When
+        categoryService.move(it, music);
+        em.flush();
+        em.clear();
+
+        // Then
+        assertTrue(categoryService.findDescendants(book).isEmpty());
+        assertEquals(2, categoryService.findDescendants(music).size());
+        assertEquals(2, categoryRepository.findOne(java).getDepth());
+
+        CategoryTree tree = CategoryTree.of(categoryRepository.findAllNodes());
+        assertEquals(java, tree.get(it).getChildren().get(0).getId());
+        assertEquals(2, tree.getDescendants(music).size());
+    }
+
+    // path는 문자열 순이라 id 자릿수가 다르면("/10/" < "/5/") 깊이 순이 깨지므로 id가 10 이상인 카테고리로 확인한다.
+    @Test
+    public void 하위트리_깊이순_조회() {
+        // Given
+        Long root = categoryService.create("루트", null);
+        List<Long> children = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            children.add(categoryService.create("자식" + i, root));
+        }
+        Long first = children.get(0);
+        Long last = children.get(children.size() - 1);
+        Long grandChild = categoryService.create("손자", first);
+        Long greatGrandChild = categoryService.create("증손자", grandChild);
+        Long lastGrandChild = categoryService.create("손자2", last);
+        em.flush();
+        em.clear();
+        assertTrue("id가 10 이상이어야 한다.", lastGrandChild >= 10);
+
+        // When
+        List<Category> descendants = categoryService.findDescendants(root);
+        CategoryTree tree = CategoryTree.of(categoryRepository.findAllNodes());
+
+        // Then
+        assertEquals(13, descendants.size());
+        for (int i = 1; i < descendants.size(); i++) {
+            assertTrue("깊이 순으로 조회해야 한다.", descendants.get(i - 1).getDepth() <= descendants.get(i).getDepth());
+        }
+        assertEquals(greatGrandChild, descendants.get(descendants.size() - 1).getId());
+        assertEquals(3, categoryRepository.findOne(greatGrandChild).getDepth());
+
+        List<Long> siblings = tree.get(root).getChildren().stream()
+                .map(CategoryTree.Node::getId)
+                .collect(Collectors.toList());
+        assertEquals("형제는 id 순이어야 한다.", children, siblings);
+        assertEquals(lastGrandChild, tree.get(last).getChildren().get(0).getId());
+        assertEquals(13, tree.getDescendants(root).size());
+    }
+
+    // 저장 전 부모에 붙인 자식은 부모를 먼저 저장하면 저장할 때 path가 정해진다.
+    @Test
+    public void 저장전_부모에_자식_추가() {
+        // Given
+        Category parent = new Category();
+        parent.setName("부모");
+        Category child = new Category();
+        child.setName("자식");
+        parent.addChildCategory(child);
+
+        // When
+        categoryRepository.save(parent);
+        categoryRepository.save(child);
+
+        // Then
+        assertEquals(parent.getSubtreePath(), child.getPath());
+        assertEquals(1, child.getDepth());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 하위트리_아래로_이동() {
+        Long book = categoryService.create("도서", null);
+        Long it = categoryService.create("IT", book);
+
+        categoryService.move(book, it);
+    }
+
+    private void addItem(Long categoryId, String name) {
+        Book item = new Book();
+        item.setName(name);
+        item.setPrice(10000);
+        item.setStockQuantity(10);
+        em.persist(item);
+        categoryRepository.findOne(categoryId).getItems().add(item);
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.jpashop.modules.delivery;
+
+import com.example.jpashop.support.datagen.DatasetGenerator;
+import com.example.jpashop.support.datagen.DatasetSpec;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+// 배치가 청크마다 커밋하므로 테스트 트랜잭션으로 되돌릴 수 없다. 생성한 데이터가 다른 테스트에 섞이지 않게 따로 메모리 DB를 쓴다.
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:delivery-batch;DB_CLOSE_DELAY=-1")
+public class DeliveryStatusBatchTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Autowired DeliveryStatusBatch deliveryStatusBatch;
+    @Autowired DatasetGenerator datasetGenerator;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired DeliveryBatchRepository deliveryBatchRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private List<Long> readyIds;
+
+    @Before
+    public void setUp() {
+        DatasetSpec spec = new DatasetSpec();
+        spec.setMembers(10);
+        spec.setItems(10);
+        spec.setCategoryRoots(0);
+        spec.setOrders(30);
+        spec.setCancelRatio(0);
+        spec.setDeliveredRatio(0);
+        datasetGenerator.generate(spec);
+        readyIds = jdbcTemplate.queryForList("select d.id from delivery d" +
+                " join orders o on o.delivery_id = d.id" +
+                " where d.status = 'READY' and o.status = 'ORDER' order by d.id", Long.class);
+    }
+
+    // 파일에 있는 READY 배송만 바뀌고, 주문 버전이 올라가야 한다.
+    // (메모리 DB를 테스트끼리 같이 쓰므로 버전은 실행 전 값과 비교한다)
+    @Test
+    public void 배송상태_일괄변경() throws IOException {
+        // Given
+        List<Long> delivered = new ArrayList<>();
+        StringBuilder lines = new StringBuilder("# carrier feed\n");
+        for (int i = 0; i < readyIds.size(); i += 3) {
+            delivered.add(readyIds.get(i));
+            lines.append(readyIds.get(i)).append(",COMP\n");
+        }
+        lines.append("잘못된 줄\n").append("-1,COMP\n");
+        Path feed = feed(lines.toString());
+        String jobId = "job-" + System.nanoTime();
+        Map<Long, Long> versions = orderVersions();
+
+        // When
+        DeliveryBatchResult result = deliveryStatusBatch.run(jobId, feed, 3, 4);
+
+        // Then
+        assertEquals(delivered.size(), result.getUpdated());
+        assertEquals("READY 배송을 모두 한 번씩 읽어야 한다.", readyIds.size(), result.getRead());
+        assertEquals(1, result.getInvalidLines());
+        for (Long id : delivered) {
+            assertEquals("COMP", jdbcTemplate.queryForObject("select status from delivery where id = ?", String.class, id));
+            assertEquals(versions.get(id) + 1, orderVersion(id));
+        }
+        assertEquals(versions.get(readyIds.get(1)), orderVersion(readyIds.get(1)));
+    }
+
+    // 취소된 주문의 배송은 파일에 있어도 읽지도 바꾸지도 않는다.
+    @Test
+    public void 취소된_주문의_배송은_제외() throws IOException {
+        // Given
+        Long cancelled = readyIds.get(readyIds.size() / 2);
+        Long delivered = readyIds.get(readyIds.size() / 2 + 1);
+        jdbcTemplate.update("update orders set status = 'CANCEL' where delivery_id = ?", cancelled);
+        Map<Long, Long> versions = orderVersions();
+        Path feed = feed(cancelled + ",COMP\n" + delivered + ",COMP\n");
+
+        // When
+        DeliveryBatchResult result = deliveryStatusBatch.run("job-" + System.nanoTime(), feed, 2, 5);
+
+        // Then
+        assertEquals(1, result.getUpdated());
+        assertEquals("취소된 주문의 배송은 읽지 않아야 한다.", readyIds.size() - 1, result.getRead());
+        assertEquals("READY", jdbcTemplate.queryForObject("select status from delivery where id = ?", String.class, cancelled));
+        assertEquals(versions.get(cancelled), orderVersion(cancelled));
+        assertEquals("COMP", jdbcTemplate.queryForObject("select status from delivery where id = ?", String.class, delivered));
+        assertEquals(versions.get(delivered) + 1, orderVersion(delivered));
+    }
+
+    // 읽은 뒤에 다른 트랜잭션이 배송 상태를 바꿨으면 배송도 주문 버전도 그대로 둔다.
+    @Test
+    public void 이미_바뀐_배송은_주문_버전도_그대로() {
+        // Given
+        Long changed = readyIds.get(0);
+        jdbcTemplate.update("update delivery set status = 'COMP' where id = ?", changed);
+        long version = orderVersion(changed);
+
+        // When
+        Integer updated = transactionTemplate.execute(status -> deliveryBatchRepository.updateStatus(
+                new long[]{changed}, new DeliveryStatus[]{DeliveryStatus.COMP}, 1, DeliveryStatus.READY));
+
+        // Then
+        assertEquals(Integer.valueOf(0), updated);
+        assertEquals("배송이 바뀌지 않았으면 주문 버전을 올리지 않아야 한다.", version, orderVersion(changed));
+        jdbcTemplate.update("update delivery set status = 'READY' where id = ?", changed);
+    }
+
+    // 끝난 작업을 다시 실행하면 체크포인트 때문에 아무것도 읽지 않는다.
+    @Test
+    public void 같은_작업은_체크포인트부터_재시작() throws IOException {
+        Path feed = feed(readyIds.get(0) + ",COMP\n");
+        String jobId = "job-" + System.nanoTime();
+
+        DeliveryBatchResult first = deliveryStatusBatch.run(jobId, feed, 2, 5);
+        jdbcTemplate.update("update delivery set status = 'READY' where id = ?", readyIds.get(0));
+        DeliveryBatchResult second = deliveryStatusBatch.run(jobId, feed, 2, 5);
+
+        assertEquals(1, first.getUpdated());
+        assertEquals("이미 끝난 작업은 다시 처리하지 않는다.", first.getRead(), second.getRead());
+        assertEquals(1, second.getUpdated());
+        assertEquals("READY", jdbcTemplate.queryForObject("select status from delivery where id = ?", String.class, readyIds.get(0)));
+    }
+
+    // 배송 id -> 주문 버전
+    private Map<Long, Long> orderVersions() {
+        Map<Long, Long> versions = new HashMap<>();
+        jdbcTemplate.query("select delivery_id, version from orders",
+                (RowCallbackHandler) rs -> versions.put(rs.getLong(1), rs.getLong(2)));
+        return versions;
+    }
+
+    private long orderVersion(Long deliveryId) {
+        return jdbcTemplate.queryForObject("select version from orders where delivery_id = ?", Long.class, deliveryId);
+    }
+
+    private Path feed(String content) throws IOException {
+        Path feed = folder.newFile("carrier.csv").toPath();
+        Files.writeString(feed, content);
+        return feed;
+    }
+}
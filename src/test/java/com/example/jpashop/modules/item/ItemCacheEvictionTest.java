@@ -0,0 +1,77 @@
+package com.example.jpashop.modules.item;
+
+import com.example.jpashop.modules.member.Address;
+import com.example.jpashop.modules.member.Member;
+import com.example.jpashop.modules.member.MemberService;
+import com.example.jpashop.modules.order.OrderService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * 재고 차감은 바꾼 상품만 2차 캐시에서 비워야 한다. (커밋해야 하므로 @Transactional을 붙이지 않는다.)
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:item-cache;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.region.factory_class=jcache",
+        "spring.jpa.properties.hibernate.javax.cache.missing_cache_strategy=create"})
+public class ItemCacheEvictionTest {
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired EntityManagerFactory emf;
+
+    @Test
+    public void 주문한_상품만_캐시에서_제거() {
+        // Given
+        Member member = new Member();
+        member.setName("캐시회원" + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+        Long ordered = saveBook("주문할 JPA");
+        Long other = saveBook("다른 JPA");
+
+        Cache cache = emf.getCache();
+        load(ordered);
+        load(other);
+        assertTrue(cache.contains(Item.class, ordered));
+        assertTrue(cache.contains(Item.class, other));
+
+        // When
+        orderService.order(memberId, ordered, 1);
+
+        // Then
+        assertFalse("재고가 바뀐 상품은 캐시에서 빠져야 한다.", cache.contains(Item.class, ordered));
+        assertTrue("다른 상품의 캐시는 남아 있어야 한다.", cache.contains(Item.class, other));
+        assertEquals(9, itemService.findOne(ordered).getStockQuantity());
+    }
+
+    private Long saveBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+        return book.getId();
+    }
+
+    private void load(Long itemId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.find(Item.class, itemId);
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.jpashop.modules.item;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 커밋 후 무효화를 확인해야 하므로 @Transactional을 붙이지 않고, 저장한 상품은 테스트가 끝나면 지운다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ItemCatalogueTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired ItemCatalogue itemCatalogue;
+    @Autowired ItemService itemService;
+    @Autowired ItemRepository itemRepository;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    private final List<Long> savedIds = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        itemCatalogue.invalidate();
+    }
+
+    @After
+    public void tearDown() {
+        transactionTemplate.executeWithoutResult(status ->
+                savedIds.forEach(id -> em.remove(em.find(Item.class, id))));
+        itemCatalogue.invalidate();
+    }
+
+    // 같은 페이지는 캐시된 조각을 쓰고, 상품이 등록되면 커밋 후 다시 렌더링한다.
+    @Test
+    public void 상품목록_조각_캐시() {
+        // Given
+        ItemSearch itemSearch = new ItemSearch();
+        String first = render(itemSearch);
+        String second = render(itemSearch);
+
+        // When
+        Book book = saveBook("캐시 무효화 테스트 " + System.nanoTime());
+
+        String afterSave = render(itemSearch);
+
+        // Then
+        assertSame("같은 페이지는 캐시된 조각을 돌려줘야 한다.", first, second);
+        assertFalse(first.contains(book.getName()));
+        assertTrue("상품 등록 후에는 새 상품이 보여야 한다.", afterSave.contains(book.getName()));
+        assertEquals(1, itemCatalogue.size());
+    }
+
+    // 주문으로 바뀐 재고(벌크 update)도 커밋 후 바로 다시 렌더링한다.
+    @Test
+    public void 재고_변경_후_다시_렌더링() {
+        // Given
+        ItemSearch itemSearch = new ItemSearch();
+        Book book = saveBook("재고 변경 테스트 " + System.nanoTime());
+        String before = render(itemSearch);
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> itemRepository.removeStock(book.getId(), 3));
+        String after = render(itemSearch);
+
+        // Then
+        assertTrue(row(before, book).contains("<td>10</td>"));
+        assertTrue("재고가 바뀌면 새 재고가 보여야 한다.", row(after, book).contains("<td>7</td>"));
+    }
+
+    @Test
+    public void 정렬과_페이지마다_따로_캐시() {
+        ItemSearch byName = new ItemSearch();
+        byName.setSort(ItemSort.NAME);
+        ItemSearch secondPage = new ItemSearch();
+        secondPage.setSize(1);
+        secondPage.setPage(1);
+
+        render(new ItemSearch());
+        render(byName);
+        render(secondPage);
+
+        assertEquals(3, itemCatalogue.size());
+    }
+
+    // 전체 상품 수는 지문마다 한 번 세고, 상품이 등록되면 다시 센다. 페이지 내용은 정렬 순서 그대로다.
+    @Test
+    public void 상품_수와_정렬() {
+        // Given
+        ItemSearch byPrice = new ItemSearch();
+        byPrice.setSort(ItemSort.PRICE);
+        long before = itemService.findItems(byPrice).getTotalElements();
+
+        // When
+        saveBook("상품 수 테스트 " + System.nanoTime());
+        Page<Item> after = itemService.findItems(byPrice);
+
+        // Then
+        assertEquals("상품이 등록되면 전체 상품 수도 바뀌어야 한다.", before + 1, after.getTotalElements());
+        List<Item> content = after.getContent();
+        for (int i = 1; i < content.size(); i++) {
+            assertTrue("가격 순서여야 한다.", content.get(i - 1).getPrice() <= content.get(i).getPrice());
+        }
+    }
+
+    private Book saveBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+        savedIds.add(book.getId());
+        return book;
+    }
+
+    // 상품 이름부터 그 행 끝까지
+    private String row(String fragment, Item item) {
+        int start = fragment.indexOf(item.getName());
+        assertTrue("상품이 목록에 있어야 한다.", start >= 0);
+        return fragment.substring(start, fragment.indexOf("</tr>", start));
+    }
+
+    private String render(ItemSearch itemSearch) {
+        return itemCatalogue.render(itemSearch, new MockHttpServletRequest("GET", "/items"), new MockHttpServletResponse());
+    }
+}
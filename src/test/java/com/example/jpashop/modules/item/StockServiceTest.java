@@ -0,0 +1,97 @@
+package com.example.jpashop.modules.item;
+
+import com.example.jpashop.exception.NotEnoughStockException;
+import com.example.jpashop.modules.member.Address;
+import com.example.jpashop.modules.member.Member;
+import com.example.jpashop.modules.member.MemberService;
+import com.example.jpashop.modules.order.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 같은 상품에 동시 주문 (트랜잭션을 실제로 커밋해야 하므로 @Transactional을 붙이지 않는다.)
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class StockServiceTest {
+
+    private static final int THREADS = 8;
+    private static final int ORDERS_PER_THREAD = 25;
+    private static final int STOCK = 100;
+
+    @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+
+    // 재고보다 많은 주문이 동시에 들어와도 재고만큼만 성공하고 나머지는 재고 부족이어야 한다.
+    @Test
+    public void 동시주문_초과판매_없음() throws Exception {
+        // Given
+        Member member = new Member();
+        member.setName("동시주문회원" + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+
+        Book book = new Book();
+        book.setName("인기 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(STOCK);
+        itemService.saveItem(book);
+        Long itemId = book.getId();
+
+        // When
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger notEnoughStock = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    try {
+                        orderService.order(memberId, itemId, 1);
+                        success.incrementAndGet();
+                    } catch (NotEnoughStockException e) {
+                        notEnoughStock.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        // Then
+        int attempts = THREADS * ORDERS_PER_THREAD;
+        log.info("hot item contention: threads={}, attempts={}, success={}, {} orders/sec",
+                THREADS, attempts, success.get(), String.format("%.1f", attempts / (elapsedNanos / 1_000_000_000.0)));
+
+        assertEquals("재고만큼만 주문이 성공해야 한다.", STOCK, success.get());
+        assertEquals("나머지는 재고 부족이어야 한다.", attempts - STOCK, notEnoughStock.get());
+        assertEquals("재고는 음수가 될 수 없다.", 0, itemService.findOne(itemId).getStockQuantity());
+    }
+}
@@ -7,6 +7,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.*;
 
 @RunWith(SpringRunner.class)
@@ -16,6 +18,10 @@ public class MemberServiceTest {
 
     @Autowired
     MemberService memberService;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberNameIndex memberNameIndex;
 
 
     @Test
@@ -48,4 +54,72 @@ public class MemberServiceTest {
         // Then
         fail("예외가 발생해야 한다.");
     }
-}
\ No newline at end of file
+
+    // 필터에 없는 이름(다른 서버에서 가입, 필터 밖에서 저장)도 유니크 인덱스로 걸러야 한다.
+    @Test(expected = IllegalStateException.class)
+    public void 중복회원_필터에_없는_이름() {
+        // Given
+        Member member1 = new Member();
+        member1.setName("Lee");
+        memberRepository.save(member1);
+
+        Member member2 = new Member();
+        member2.setName("Lee");
+
+        // When
+        memberService.join(member2);
+
+        // Then
+        fail("예외가 발생해야 한다.");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void 이름변경_중복_예외() {
+        // Given
+        Member member1 = new Member();
+        member1.setName("Park");
+        memberService.join(member1);
+        Member member2 = new Member();
+        member2.setName("Choi");
+        Long id = memberService.join(member2);
+
+        // When
+        memberService.update(id, "Park");
+
+        // Then
+        fail("예외가 발생해야 한다.");
+    }
+
+    // 필터에 없는 이름으로 바꾸면 중복 조회를 건너뛰므로 유니크 인덱스 위반을 중복으로 바꿔야 한다.
+    @Test(expected = IllegalStateException.class)
+    public void 이름변경_중복_필터에_없는_이름() {
+        // Given
+        Member member1 = new Member();
+        member1.setName("Jung");
+        memberRepository.save(member1);
+        Member member2 = new Member();
+        member2.setName("Kang");
+        Long id = memberService.join(member2);
+
+        // When
+        memberService.update(id, "Jung");
+
+        // Then
+        fail("예외가 발생해야 한다.");
+    }
+
+    // 이름 색인은 커밋된 가입만 반영한다. (이 테스트 트랜잭션은 롤백된다)
+    @Test
+    public void 커밋전_가입은_색인에_없음() {
+        // Given
+        Member member = new Member();
+        member.setName("색인회원" + System.nanoTime());
+
+        // When
+        Long id = memberService.join(member);
+
+        // Then
+        long[] found = memberNameIndex.search(member.getName());
+        assertTrue(found == null || Arrays.stream(found).noneMatch(memberId -> memberId == id));
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.jpashop.modules.order;
+
+import com.example.jpashop.support.datagen.DatasetGenerator;
+import com.example.jpashop.support.datagen.DatasetSpec;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+// 보관은 청크마다 커밋하므로 테스트 트랜잭션으로 되돌릴 수 없다. 다른 테스트와 섞이지 않게 따로 메모리 DB를 쓴다.
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:order-archive;DB_CLOSE_DELAY=-1")
+public class OrderArchiverTest {
+
+    @Autowired OrderArchiver orderArchiver;
+    @Autowired OrderQueryRepository orderQueryRepository;
+    @Autowired OrderSummaryService orderSummaryService;
+    @Autowired SalesService salesService;
+    @Autowired DatasetGenerator datasetGenerator;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    // 오래된 완료/취소 주문만 옮기고, archived 조회는 옮긴 주문까지 합쳐야 한다.
+    @Test
+    public void 주문보관() {
+        // Given
+        DatasetSpec spec = new DatasetSpec();
+        spec.setMembers(10);
+        spec.setItems(10);
+        spec.setCategoryRoots(0);
+        spec.setOrders(60);
+        spec.setCancelRatio(0.3);
+        spec.setDeliveredRatio(0.5);
+        spec.setEndDate(LocalDate.of(2020, 1, 1));
+        spec.setDays(30);
+        datasetGenerator.generate(spec);
+        orderSummaryService.rebuild();
+        salesService.rebuildDailySales();
+
+        long orders = count("orders");
+        long archivedBefore = count("orders_archive");
+        long orderItems = count("order_item") + count("order_item_archive");
+        long archivable = jdbcTemplate.queryForObject("select count(*) from orders o join delivery d on d.id = o.delivery_id" +
+                " where o.status = 'CANCEL' or d.status = 'COMP'", Long.class);
+        long salesAmount = dailySalesAmount();
+
+        // When
+        long archived = orderArchiver.archive(LocalDateTime.of(2020, 1, 1, 0, 0));
+
+        // Then
+        assertEquals(archivable, archived);
+        assertTrue(archived > 0);
+        assertEquals(orders - archived, count("orders"));
+        assertEquals(archivedBefore + archived, count("orders_archive"));
+        assertEquals(archivedBefore + archived, count("delivery_archive"));
+        assertEquals("주문상품은 옮기기만 해야 한다.", orderItems, count("order_item") + count("order_item_archive"));
+        assertEquals("주문 요약에서도 빠져야 한다.", orders - archived, count("order_summary"));
+
+        List<OrderQueryDto> live = orderQueryRepository.findAllByDto_optimization(OrderCursor.first(OrderCursor.Sort.ID), 1000);
+        List<OrderQueryDto> all = orderQueryRepository.findAllByDto_optimization(OrderCursor.first(OrderCursor.Sort.ID), 1000, true);
+        assertEquals(orders - archived, live.size());
+        assertEquals(orders + archivedBefore, all.size());
+        assertEquals("주문 id 순서로 합쳐야 한다.",
+                all.stream().map(OrderQueryDto::getOrderId).sorted().collect(Collectors.toList()),
+                all.stream().map(OrderQueryDto::getOrderId).collect(Collectors.toList()));
+        assertTrue("보관 주문도 주문상품과 금액이 있어야 한다.",
+                all.stream().allMatch(o -> !o.getOrderItems().isEmpty() && o.getTotalPrice() > 0));
+
+        OrderSearch search = new OrderSearch();
+        search.setOrderStatus(OrderStatus.CANCEL);
+        assertTrue(orderSummaryService.findOrderSummaries(search).isEmpty());
+        search.setArchived(true);
+        assertFalse(orderSummaryService.findOrderSummaries(search).isEmpty());
+
+        salesService.rebuildDailySales();
+        assertEquals("일별 판매는 보관 주문까지 포함해야 한다.", salesAmount, dailySalesAmount());
+
+        assertEquals("다시 실행하면 옮길 주문이 없다.", 0, orderArchiver.archive(LocalDateTime.of(2020, 1, 1, 0, 0)));
+    }
+
+    // 두 테이블을 합쳐도 키셋 페이지를 끝까지 넘기면 모든 주문을 한 번씩 본다.
+    @Test
+    public void 보관주문_포함_커서페이징() {
+        orderArchiver.archive(LocalDateTime.of(2020, 1, 1, 0, 0));
+        long orders = count("orders") + count("orders_archive");
+
+        OrderCursor cursor = OrderCursor.first(OrderCursor.Sort.DATE);
+        long seen = 0;
+        List<OrderQueryDto> page;
+        do {
+            page = orderQueryRepository.findOrderQueryDtos(cursor, 7, true);
+            seen += page.size();
+            if (!page.isEmpty()) {
+                OrderQueryDto last = page.get(page.size() - 1);
+                cursor = cursor.next(last.getOrderId(), last.getOrderDate());
+            }
+        } while (page.size() == 7);
+
+        assertEquals(orders, seen);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+    }
+
+    private long dailySalesAmount() {
+        return salesService.findDailySales(LocalDate.of(2000, 1, 1), LocalDate.of(2100, 1, 1)).stream()
+                .mapToLong(DailySalesDto::getAmount).sum();
+    }
+}
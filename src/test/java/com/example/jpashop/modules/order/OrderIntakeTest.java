@@ -0,0 +1,98 @@
+package com.example.jpashop.modules.order;
+
+import com.example.jpashop.exception.NotEnoughStockException;
+import com.example.jpashop.modules.item.Book;
+import com.example.jpashop.modules.item.ItemService;
+import com.example.jpashop.modules.member.Address;
+import com.example.jpashop.modules.member.Member;
+import com.example.jpashop.modules.member.MemberService;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 그룹 커밋 주문 접수 (writer 스레드가 커밋하므로 @Transactional을 붙이지 않는다.)
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "jpashop.order.intake.mode=async",
+        "jpashop.order.intake.window-millis=20",
+        "jpashop.order.intake.workers=1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=100",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+public class OrderIntakeTest {
+
+    private static final int ORDERS = 200;
+
+    @Autowired OrderIntake orderIntake;
+    @Autowired MemberService memberService;
+    @Autowired ItemService itemService;
+    @Autowired EntityManagerFactory emf;
+
+    // 주문마다 커밋하지 않고 묶어서 커밋해야 한다. 재고가 부족한 주문만 실패해야 한다.
+    @Test
+    public void 그룹커밋() throws Exception {
+        // Given
+        Member member = new Member();
+        member.setName("그룹커밋회원" + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+
+        Book book = new Book();
+        book.setName("그룹커밋 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(ORDERS);
+        itemService.saveItem(book);
+        Long itemId = book.getId();
+
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        long transactionsBefore = statistics.getSuccessfulTransactionCount();
+
+        // When
+        long start = System.nanoTime();
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            futures.add(orderIntake.submit(memberId, itemId, 1));
+        }
+        CompletableFuture<Long> overflow = orderIntake.submit(memberId, itemId, 1);
+
+        HashSet<Long> orderIds = new HashSet<>();
+        for (CompletableFuture<Long> future : futures) {
+            orderIds.add(future.get(10, TimeUnit.SECONDS));
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long transactions = statistics.getSuccessfulTransactionCount() - transactionsBefore;
+
+        // Then
+        log.info("group commit: orders={}, transactions={}, {} orders/sec",
+                ORDERS, transactions, String.format("%.1f", ORDERS / (elapsedNanos / 1_000_000_000.0)));
+
+        assertEquals("주문 id가 모두 달라야 한다.", ORDERS, orderIds.size());
+        assertTrue("주문 수보다 커밋 수가 적어야 한다. transactions=" + transactions, transactions < ORDERS);
+        assertEquals(0, itemService.findOne(itemId).getStockQuantity());
+        try {
+            overflow.get(10, TimeUnit.SECONDS);
+            fail("재고 부족 예외가 발생해야 한다.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NotEnoughStockException);
+        }
+    }
+}
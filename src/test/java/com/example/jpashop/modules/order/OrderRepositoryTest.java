@@ -0,0 +1,89 @@
+package com.example.jpashop.modules.order;
+
+import com.example.jpashop.modules.delivery.Delivery;
+import com.example.jpashop.modules.item.Book;
+import com.example.jpashop.modules.member.Address;
+import com.example.jpashop.modules.member.Member;
+import com.example.jpashop.modules.orderItem.OrderItem;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class OrderRepositoryTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired OrderRepository orderRepository;
+
+    // 커서로 이어서 조회하면 중복/누락 없이 모든 주문을 순서대로 조회해야 한다.
+    @Test
+    public void 키셋_페이징() {
+        // Given
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orderIds.add(createOrder().getId());
+        }
+        em.flush();
+        em.clear();
+
+        // When
+        List<Long> found = new ArrayList<>();
+        OrderCursor cursor = OrderCursor.first(OrderCursor.Sort.DATE);
+        List<Order> page;
+        do {
+            page = orderRepository.findAllWithMemberDelivery(cursor, 2);
+            for (Order order : page) {
+                if (orderIds.contains(order.getId())) {
+                    found.add(order.getId());
+                }
+            }
+            if (!page.isEmpty()) {
+                Order last = page.get(page.size() - 1);
+                cursor = OrderCursor.decode(cursor.next(last.getId(), last.getOrderDate()).encode(), OrderCursor.Sort.ID);
+            }
+        } while (page.size() == 2);
+
+        // Then
+        assertEquals("커서 페이징은 모든 주문을 한 번씩 조회해야 한다.", orderIds, found);
+        assertEquals("커서에 담긴 정렬 기준을 유지해야 한다.", OrderCursor.Sort.DATE, cursor.getSort());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 잘못된_커서() {
+        OrderCursor.decode("not-a-cursor", OrderCursor.Sort.ID);
+    }
+
+    private Order createOrder() {
+        Member member = new Member();
+        member.setName("회원" + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+
+        Order order = Order.createOrder(member, delivery, OrderItem.createOrderItem(book, 10000, 1));
+        em.persist(order);
+        return order;
+    }
+}
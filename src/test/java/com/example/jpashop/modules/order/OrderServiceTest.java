@@ -1,20 +1,29 @@
 package com.example.jpashop.modules.order;
 
 import com.example.jpashop.exception.NotEnoughStockException;
+import com.example.jpashop.modules.delivery.DeliveryStatus;
 import com.example.jpashop.modules.item.Book;
 import com.example.jpashop.modules.item.Item;
 import com.example.jpashop.modules.member.Address;
 import com.example.jpashop.modules.member.Member;
+import com.example.jpashop.modules.member.MemberNameIndex;
+import com.example.jpashop.modules.member.MemberService;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.Assert.*;
 
 @RunWith(SpringRunner.class)
@@ -26,7 +35,14 @@ public class OrderServiceTest {
     EntityManager em;
 
     @Autowired OrderService orderService;
+    @Autowired MemberService memberService;
+    @Autowired MemberNameIndex memberNameIndex;
     @Autowired OrderRepository orderRepository;
+    @Autowired OrderSummaryRepository orderSummaryRepository;
+    @Autowired OrderSummaryService orderSummaryService;
+    @Autowired OrderQueryRepository orderQueryRepository;
+    @Autowired SalesQueryRepository salesQueryRepository;
+    @Autowired SalesService salesService;
 
     // 상품 주문이 성공해야 한다.
     @Test
@@ -101,4 +117,232 @@ public class OrderServiceTest {
         assertEquals("주문이 취소된 상품은 그만큼 재고가 증가해야 한다.", 10, item.getStockQuantity());
     }
 
-}
\ No newline at end of file
+    // 같은 주문을 두 번 취소해도 재고 복구와 일별 판매 차감은 한 번만 일어나야 한다.
+    @Test
+    public void 주문취소_두번() {
+        // Given
+        Member member = createMember();
+        Item item = createBook("시골 JPA", 10000, 10);
+        Long orderId = orderService.order(member.getId(), item.getId(), 3);
+        LocalDate today = LocalDate.now();
+        DailySalesDto before = dailySales(today);
+
+        // When
+        orderService.cancelOrder(orderId);
+        orderService.cancelOrder(orderId);
+        em.flush();
+        em.clear();
+
+        // Then
+        assertEquals(10, orderRepository.findOne(orderId).getOrderItems().get(0).getItem().getStockQuantity());
+        DailySalesDto after = dailySales(today);
+        assertEquals(-1, after.getOrderCount() - before.getOrderCount());
+        assertEquals(-3, after.getQuantity() - before.getQuantity());
+        assertEquals(-30000, after.getAmount() - before.getAmount());
+    }
+
+    // 장바구니의 여러 상품이 주문 하나로 생성되어야 한다.
+    @Test
+    public void 장바구니주문() {
+        // Given
+        Member member = createMember();
+        Item book1 = createBook("시골 JPA", 10000, 10);
+        Item book2 = createBook("도시 JPA", 20000, 10);
+
+        // When
+        Long orderId = orderService.checkout(member.getId(), Arrays.asList(
+                new OrderLine(book1.getId(), 1),
+                new OrderLine(book2.getId(), 2),
+                new OrderLine(book1.getId(), 2)));
+
+        // Then
+        Order getOrder = orderRepository.findOne(orderId);
+        assertEquals("같은 상품은 한 줄로 합쳐야 한다.", 2, getOrder.getOrderItems().size());
+        assertEquals(10000 * 3 + 20000 * 2, getOrder.getTotalPrice());
+        assertEquals(10 - 3, em.find(Item.class, book1.getId()).getStockQuantity());
+        assertEquals(10 - 2, em.find(Item.class, book2.getId()).getStockQuantity());
+    }
+
+    // 한 상품이라도 재고가 부족하면 주문 전체가 실패해야 한다.
+    @Test(expected = NotEnoughStockException.class)
+    public void 장바구니주문_재고수량초과() {
+        Member member = createMember();
+        Item book1 = createBook("시골 JPA", 10000, 10);
+        Item book2 = createBook("도시 JPA", 20000, 1);
+
+        orderService.checkout(member.getId(), Arrays.asList(
+                new OrderLine(book1.getId(), 1),
+                new OrderLine(book2.getId(), 2)));
+
+        fail("재고 수량 부족 예외가 발생해야 한다.");
+    }
+
+    // 주문/취소 시 주문 요약도 함께 갱신되어야 한다.
+    @Test
+    public void 주문요약_갱신() {
+        // Given
+        Member member = createMember();
+        Item item = createBook("시골 JPA", 10000, 10);
+
+        // When
+        Long orderId = orderService.order(member.getId(), item.getId(), 2);
+
+        // Then
+        OrderSummary summary = orderSummaryRepository.findOne(orderId);
+        assertEquals("회원1", summary.getMemberName());
+        assertEquals(OrderStatus.ORDER, summary.getStatus());
+        assertEquals(10000 * 2, summary.getTotalPrice());
+        assertEquals(1, summary.getItemCount());
+
+        orderService.cancelOrder(orderId);
+        assertEquals("주문 취소시 요약 상태도 CANCEL이다", OrderStatus.CANCEL, orderSummaryRepository.findOne(orderId).getStatus());
+    }
+
+    // 주문 요약은 회원 이름 앞부분으로 찾는다. (인덱스 범위 검색)
+    @Test
+    public void 주문요약_회원이름_앞부분검색() {
+        // Given
+        Member member = new Member();
+        member.setName("요약_회원" + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        memberService.join(member);
+        Item item = createBook("시골 JPA", 10000, 10);
+        Long orderId = orderService.order(member.getId(), item.getId(), 1);
+
+        // When
+        OrderSearch prefix = new OrderSearch();
+        prefix.setMemberName("요약_회");
+        OrderSearch wildcard = new OrderSearch();
+        wildcard.setMemberName("요약%회");
+        OrderSearch infix = new OrderSearch();
+        infix.setMemberName("약_회원");
+
+        // Then
+        assertTrue(orderSummaryService.findOrderSummaries(prefix).stream().anyMatch(o -> o.getOrderId().equals(orderId)));
+        assertTrue("검색어의 %는 글자 그대로 찾아야 한다.", orderSummaryService.findOrderSummaries(wildcard).isEmpty());
+        assertTrue(orderSummaryService.findOrderSummaries(infix).stream().noneMatch(o -> o.getOrderId().equals(orderId)));
+    }
+
+    // 회원 이름 일부로 검색하면 이름 색인에서 찾은 회원의 주문만 페이지로 조회해야 한다.
+    @Test
+    public void 주문검색_회원이름() {
+        // Given
+        Member member = new Member();
+        member.setName("검색회원" + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        memberService.join(member);
+        // 이름 색인은 커밋 후에 반영되는데 이 테스트는 롤백하므로 직접 넣는다.
+        memberNameIndex.put(member.getId(), member.getName());
+        Item item = createBook("시골 JPA", 10000, 10);
+        Long orderId = orderService.order(member.getId(), item.getId(), 1);
+
+        // When
+        OrderSearch trigram = new OrderSearch();
+        trigram.setMemberName("검색회원");
+        trigram.setOrderStatus(OrderStatus.ORDER);
+        OrderSearch shortName = new OrderSearch();
+        shortName.setMemberName("색회");
+
+        // Then
+        Page<Order> found = orderService.findOrders(trigram);
+        assertEquals(1, found.getTotalElements());
+        assertEquals(orderId, found.getContent().get(0).getId());
+        assertEquals("3글자 미만 검색어도 찾아야 한다.", 1, orderService.findOrders(shortName).getTotalElements());
+
+        trigram.setOrderStatus(OrderStatus.CANCEL);
+        assertTrue(orderService.findOrders(trigram).isEmpty());
+    }
+
+    // 일괄 취소는 취소 가능한 주문만 취소하고 상품별 재고를 한 번에 복구해야 한다.
+    @Test
+    public void 주문일괄취소() {
+        // Given
+        Member member = createMember();
+        Item book1 = createBook("시골 JPA", 10000, 10);
+        Item book2 = createBook("도시 JPA", 20000, 10);
+        Long order1 = orderService.order(member.getId(), book1.getId(), 2);
+        Long order2 = orderService.checkout(member.getId(), Arrays.asList(
+                new OrderLine(book1.getId(), 3),
+                new OrderLine(book2.getId(), 4)));
+        Long delivered = orderService.order(member.getId(), book2.getId(), 1);
+        Long cancelled = orderService.order(member.getId(), book2.getId(), 1);
+        orderRepository.findOne(delivered).getDelivery().setStatus(DeliveryStatus.COMP);
+        orderService.cancelOrder(cancelled);
+        em.flush();
+        em.clear();
+
+        // When
+        Map<Long, OrderCancelResult> results = orderService.cancelOrders(
+                Arrays.asList(order1, order2, delivered, cancelled, -1L));
+        em.flush();
+        em.clear();
+
+        // Then
+        assertEquals(OrderCancelResult.CANCELLED, results.get(order1));
+        assertEquals(OrderCancelResult.CANCELLED, results.get(order2));
+        assertEquals(OrderCancelResult.DELIVERED, results.get(delivered));
+        assertEquals(OrderCancelResult.ALREADY_CANCELLED, results.get(cancelled));
+        assertEquals(OrderCancelResult.NOT_FOUND, results.get(-1L));
+
+        assertEquals(OrderStatus.CANCEL, orderRepository.findOne(order2).getStatus());
+        assertEquals(OrderStatus.ORDER, orderRepository.findOne(delivered).getStatus());
+        assertEquals("취소한 수량만큼 재고가 복구되어야 한다.", 10, em.find(Item.class, book1.getId()).getStockQuantity());
+        assertEquals("배송완료 주문의 재고는 복구되지 않아야 한다.", 9, em.find(Item.class, book2.getId()).getStockQuantity());
+        assertEquals(OrderStatus.CANCEL, orderSummaryRepository.findOne(order1).getStatus());
+    }
+
+    // 주문 금액과 판매 집계는 DB에서 합산하고, 일별 카운터 증가분은 이 테스트 주문의 order_item 집계와 같아야 한다.
+    // (공유 DB에 다른 테스트의 주문이 있으므로 카운터는 전후 차이로 비교한다)
+    @Test
+    public void 판매집계() {
+        // Given
+        Member member = createMember();
+        Item book1 = createBook("시골 JPA", 10000, 10);
+        Item book2 = createBook("도시 JPA", 20000, 10);
+        LocalDate today = LocalDate.now();
+        DailySalesDto before = dailySales(today);
+
+        // When
+        Long order1 = orderService.order(member.getId(), book1.getId(), 2);
+        Long order2 = orderService.checkout(member.getId(), Arrays.asList(
+                new OrderLine(book1.getId(), 1),
+                new OrderLine(book2.getId(), 3)));
+        Long cancelled = orderService.order(member.getId(), book2.getId(), 1);
+        orderService.cancelOrder(cancelled);
+        em.flush();
+        em.clear();
+
+        // Then
+        assertEquals(Map.of(order1, 20000L, order2, 70000L, cancelled, 20000L),
+                salesQueryRepository.findTotalPrices(List.of(order1, order2, cancelled)));
+        OrderQueryDto orderDto = orderQueryRepository.findAllByDto_optimization().stream()
+                .filter(o -> o.getOrderId().equals(order2))
+                .findFirst().orElseThrow();
+        assertEquals(70000L, orderDto.getTotalPrice());
+        OrderQueryDto flatDto = orderQueryRepository.findAllByDto_flatAssembled().stream()
+                .filter(o -> o.getOrderId().equals(order2))
+                .findFirst().orElseThrow();
+        assertEquals("플랫 row로 조립해도 같은 주문이어야 한다.", orderDto.getOrderItems(), flatDto.getOrderItems());
+        assertEquals(70000L, flatDto.getTotalPrice());
+
+        SalesDto itemSales = salesService.findSalesByItem(today, today, 1000).stream()
+                .filter(sales -> sales.getId().equals(book1.getId()))
+                .findFirst().orElseThrow();
+        assertEquals(3, itemSales.getQuantity());
+        assertEquals(30000, itemSales.getAmount());
+
+        DailySalesDto after = dailySales(today);
+        DailySalesDto added = new DailySalesDto(today, after.getOrderCount() - before.getOrderCount(),
+                after.getQuantity() - before.getQuantity(), after.getAmount() - before.getAmount());
+        assertEquals("취소한 주문은 카운터에서 빠져야 한다.", 2, added.getOrderCount());
+        assertEquals(6, added.getQuantity());
+        assertEquals(90000, added.getAmount());
+        assertEquals("카운터 증가분과 order_item 집계가 같아야 한다.",
+                salesQueryRepository.findDailySales(List.of(order1, order2)), List.of(added));
+    }
+
+    private DailySalesDto dailySales(LocalDate date) {
+        List<DailySalesDto> daily = salesService.findDailySales(date, date);
+        return daily.isEmpty() ? new DailySalesDto(date, 0L, 0L, 0L) : daily.get(0);
+    }
+}
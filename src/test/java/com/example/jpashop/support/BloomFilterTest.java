@@ -0,0 +1,38 @@
+package com.example.jpashop.support;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BloomFilterTest {
+
+    // 넣은 값은 항상 있다고 답해야 한다. (false negative 없음)
+    @Test
+    public void 넣은_값() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("member-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("member-" + i));
+        }
+    }
+
+    // 넣지 않은 값의 오탐률은 설정한 값 근처여야 한다.
+    @Test
+    public void 오탐률() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("member-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("new-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("오탐률: " + falsePositives / 100_000.0, falsePositives < 100_000 * 0.02);
+    }
+}
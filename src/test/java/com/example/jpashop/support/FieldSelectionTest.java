@@ -0,0 +1,70 @@
+package com.example.jpashop.support;
+
+import com.example.jpashop.modules.order.OrderRepository;
+import com.example.jpashop.support.sql.SqlStatistics;
+import com.example.jpashop.support.sql.SqlStatisticsContext;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class FieldSelectionTest {
+
+    private static final FieldSelection ORDER_FIELDS = FieldSelection.allowed(
+            "id", "status", "member.name", "member.address", "delivery.status",
+            "orderItems.count", "orderItems.item.name");
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired OrderRepository orderRepository;
+
+    // 선택한 연관관계만 쿼리 1번으로 가져오고, 선택한 필드만 담아야 한다.
+    @Test
+    @SuppressWarnings("unchecked")
+    public void 선택한_필드만_조회() {
+        // Given
+        FieldSelection selection = ORDER_FIELDS.select("id, member.name, orderItems.item");
+        em.clear();
+
+        // When
+        SqlStatistics statistics = SqlStatisticsContext.open("test", 5);
+        List<Map<String, Object>> orders;
+        try {
+            orders = orderRepository.findAll(selection).stream()
+                    .map(order -> (Map<String, Object>) selection.project(order))
+                    .collect(Collectors.toList());
+        } finally {
+            SqlStatisticsContext.close(statistics);
+        }
+
+        // Then
+        assertFalse(orders.isEmpty());
+        assertEquals("지연 로딩 없이 쿼리 1번이어야 한다.", 1, statistics.getStatements());
+
+        Map<String, Object> order = orders.get(0);
+        assertEquals(List.of("id", "member", "orderItems"), List.copyOf(order.keySet()));
+        assertEquals(List.of("name"), List.copyOf(((Map<String, Object>) order.get("member")).keySet()));
+        Map<String, Object> orderItem = ((List<Map<String, Object>>) order.get("orderItems")).get(0);
+        assertEquals("연관관계 이름만 주면 허용된 하위 필드 전체", List.of("item"), List.copyOf(orderItem.keySet()));
+        assertEquals(List.of("name"), List.copyOf(((Map<String, Object>) orderItem.get("item")).keySet()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 허용하지_않은_필드() {
+        ORDER_FIELDS.select("member.orders");
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.jpashop.support;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+// 회원 -> 주문 같은 임의의 루트/자식으로 조립한다.
+public class FlatAssemblerTest {
+
+    private final FlatAssembler<Root, String> assembler = new FlatAssembler<>(Root::getId, Root::setChildren);
+
+    @Test
+    public void 따로_조회한_자식_잇기() {
+        List<Root> roots = Arrays.asList(new Root(2), new Root(0), new Root(7));
+        List<Row> children = Arrays.asList(new Row(7, "c"), new Row(2, "a"), new Row(99, "x"), new Row(2, "b"), new Row(0, "z"));
+
+        assembler.attach(roots, names(children), name -> find(children, name).rootId);
+
+        assertEquals(Arrays.asList("a", "b"), roots.get(0).children);
+        assertEquals("키 0도 다른 키와 같이 처리해야 한다.", Arrays.asList("z"), roots.get(1).children);
+        assertEquals(Arrays.asList("c"), roots.get(2).children);
+    }
+
+    @Test
+    public void 자식이_없으면_빈_목록() {
+        List<Root> roots = Arrays.asList(new Root(1));
+
+        assembler.attach(roots, new ArrayList<>(), name -> 1);
+
+        assertTrue(roots.get(0).children.isEmpty());
+    }
+
+    // 정렬되지 않은 플랫 row, 루트는 처음 나온 순서, outer join으로 자식이 없는 row(null)는 건너뛴다.
+    @Test
+    public void 플랫_row_조립() {
+        List<Row> rows = Arrays.asList(new Row(3, "a"), new Row(1, "b"), new Row(3, "c"), new Row(5, null), new Row(1, "d"));
+
+        List<Root> roots = assembler.assemble(rows, row -> row.rootId, row -> new Root(row.rootId), row -> row.name);
+
+        assertEquals(3, roots.size());
+        assertEquals(3, roots.get(0).id);
+        assertEquals(Arrays.asList("a", "c"), roots.get(0).children);
+        assertEquals(Arrays.asList("b", "d"), roots.get(1).children);
+        assertTrue(roots.get(2).children.isEmpty());
+    }
+
+    @Test
+    public void 정렬된_플랫_row_스트리밍() {
+        List<Row> rows = Arrays.asList(new Row(1, "a"), new Row(1, "b"), new Row(2, "c"), new Row(4, null));
+        List<Root> roots = new ArrayList<>();
+
+        assembler.forEachSorted(rows.iterator(), row -> row.rootId, row -> new Root(row.rootId), row -> row.name, roots::add);
+
+        assertEquals(3, roots.size());
+        assertEquals(Arrays.asList("a", "b"), roots.get(0).children);
+        assertEquals(Arrays.asList("c"), roots.get(1).children);
+        assertTrue(roots.get(2).children.isEmpty());
+    }
+
+    private static List<String> names(List<Row> rows) {
+        List<String> names = new ArrayList<>();
+        rows.forEach(row -> names.add(row.name));
+        return names;
+    }
+
+    private static Row find(List<Row> rows, String name) {
+        return rows.stream().filter(row -> row.name.equals(name)).findFirst().orElseThrow();
+    }
+
+    private static class Root {
+        private final long id;
+        private List<String> children;
+
+        Root(long id) {
+            this.id = id;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        void setChildren(List<String> children) {
+            this.children = children;
+        }
+    }
+
+    private static class Row {
+        private final long rootId;
+        private final String name;
+
+        Row(long rootId, String name) {
+            this.rootId = rootId;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.jpashop.support;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class InQueryBatchLoaderTest {
+
+    @Test
+    public void 청크_패딩() {
+        assertEquals(16, InQueryBatchLoader.paddedSize(1));
+        assertEquals(64, InQueryBatchLoader.paddedSize(17));
+        assertEquals(1000, InQueryBatchLoader.paddedSize(1000));
+
+        List<List<Long>> chunks = InQueryBatchLoader.toChunks(new long[]{1, 2, 3});
+        assertEquals(1, chunks.size());
+        assertEquals("IN 절 길이는 정해진 크기로 맞춰야 한다.", 16, chunks.get(0).size());
+        assertEquals("남는 자리는 마지막 id로 채운다.", Long.valueOf(3), chunks.get(0).get(15));
+    }
+
+    @Test
+    public void 최대_크기로_나누기() {
+        long[] ids = new long[2500];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i + 1;
+        }
+
+        List<List<Long>> chunks = InQueryBatchLoader.toChunks(ids);
+
+        assertEquals(3, chunks.size());
+        assertEquals(1000, chunks.get(1).size());
+        assertEquals("마지막 청크 500개는 1000으로 채운다.", 1000, chunks.get(2).size());
+        assertEquals(Long.valueOf(2500), chunks.get(2).get(999));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.jpashop.support;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LongObjectMapTest {
+
+    // rehash가 일어나도 모든 키를 찾을 수 있어야 한다.
+    @Test
+    public void 저장_조회() {
+        LongObjectMap<String> map = new LongObjectMap<>(2);
+        for (long key = 0; key < 10_000; key++) {
+            map.put(key, "v" + key);
+        }
+
+        assertEquals(10_000, map.size());
+        for (long key = 0; key < 10_000; key++) {
+            assertEquals("v" + key, map.get(key));
+        }
+        assertNull(map.get(10_000));
+        assertTrue(map.containsKey(0));
+    }
+}
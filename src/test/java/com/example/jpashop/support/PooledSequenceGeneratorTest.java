@@ -0,0 +1,128 @@
+package com.example.jpashop.support;
+
+import com.example.jpashop.JpashopApplication;
+import com.example.jpashop.modules.item.Book;
+import com.example.jpashop.modules.item.ItemService;
+import com.example.jpashop.modules.member.Address;
+import com.example.jpashop.modules.member.Member;
+import com.example.jpashop.modules.member.MemberService;
+import com.example.jpashop.modules.order.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * insert 처리량 비교
+ * - 변경 전(allocation_size=1, row마다 시퀀스 조회)과 변경 후(기본값 50)를 각각 새 DB에서 실행해서 나란히 기록한다.
+ * - 시간은 장비마다 다르므로 statement 수로 검증하고, 처리량은 로그로 남긴다.
+ *   ./gradlew test --tests '*PooledSequenceGeneratorTest' -i | grep 'id allocation'
+ */
+@Slf4j
+public class PooledSequenceGeneratorTest {
+
+    private static final int MEMBERS = 5_000;
+    private static final int ORDERS = 500;
+
+    @Test
+    public void 할당크기별_처리량_비교() {
+        Result before = measure(1);
+        Result after = measure(50);
+
+        log.info("id allocation before(1): {}", before);
+        log.info("id allocation after(50): {}", after);
+
+        assertTrue("대량 적재는 시퀀스 조회와 insert가 row마다 실행되면 안 된다. " + after,
+                after.seedStatements < MEMBERS / 10);
+        assertTrue("할당 크기를 늘리면 대량 적재 statement가 줄어야 한다.", after.seedStatements < before.seedStatements);
+        assertTrue("할당 크기를 늘리면 주문당 statement가 줄어야 한다.", after.statementsPerOrder() < before.statementsPerOrder());
+    }
+
+    private Result measure(int allocationSize) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:sequence-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create",
+                        "spring.jpa.properties.hibernate.generate_statistics=true",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=100",
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "spring.jpa.properties." + PooledSequenceGenerator.ALLOCATION_SIZE + "=" + allocationSize,
+                        "jpashop.init-db.mode=none",
+                        "logging.level.org.hibernate.SQL=info")
+                .run()) {
+            Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+            Result result = new Result();
+
+            // 대량 적재
+            EntityManager em = context.getBean(EntityManager.class);
+            statistics.clear();
+            long start = System.nanoTime();
+            context.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+                for (int i = 0; i < MEMBERS; i++) {
+                    Member member = new Member();
+                    member.setName("seed" + i);
+                    member.setAddress(new Address("서울", "강가", "123-123"));
+                    em.persist(member);
+                    if ((i + 1) % 100 == 0) {
+                        em.flush();
+                        em.clear();
+                    }
+                }
+            });
+            result.seedNanos = System.nanoTime() - start;
+            result.seedStatements = statistics.getPrepareStatementCount();
+
+            // 단건 주문
+            Member member = new Member();
+            member.setName("처리량회원");
+            member.setAddress(new Address("서울", "강가", "123-123"));
+            Long memberId = context.getBean(MemberService.class).join(member);
+            Book book = new Book();
+            book.setName("처리량 JPA");
+            book.setPrice(10000);
+            book.setStockQuantity(ORDERS);
+            context.getBean(ItemService.class).saveItem(book);
+
+            OrderService orderService = context.getBean(OrderService.class);
+            statistics.clear();
+            start = System.nanoTime();
+            for (int i = 0; i < ORDERS; i++) {
+                orderService.order(memberId, book.getId(), 1);
+            }
+            result.orderNanos = System.nanoTime() - start;
+            result.orderStatements = statistics.getPrepareStatementCount();
+
+            assertEquals(0, context.getBean(ItemService.class).findOne(book.getId()).getStockQuantity());
+            return result;
+        }
+    }
+
+    private static class Result {
+        long seedNanos;
+        long seedStatements;
+        long orderNanos;
+        long orderStatements;
+
+        double statementsPerOrder() {
+            return orderStatements / (double) ORDERS;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("seeding %d rows: %d statements, %.1f rows/sec | single-row order x%d: %.2f statements/order, %.1f orders/sec",
+                    MEMBERS, seedStatements, MEMBERS / (seedNanos / 1_000_000_000.0),
+                    ORDERS, statementsPerOrder(), ORDERS / (orderNanos / 1_000_000_000.0));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.jpashop.support.datagen;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.junit.Assert.*;
+
+// 다른 테스트가 전체 주문 수를 세거나 집계하므로 생성한 데이터가 섞이지 않게 따로 메모리 DB를 쓴다.
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:datagen;DB_CLOSE_DELAY=-1")
+public class DatasetGeneratorTest {
+
+    @Autowired DatasetGenerator datasetGenerator;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    // 같은 seed로 두 번 만들면 id만 다르고 값은 같다.
+    @Test
+    public void 같은_seed면_같은_데이터() {
+        // Given
+        DatasetSpec spec = smallSpec();
+        long orders = count("orders");
+        long orderItems = count("order_item");
+
+        // When
+        DatasetReport first = datasetGenerator.generate(spec);
+        DatasetReport second = datasetGenerator.generate(spec);
+
+        // Then
+        assertEquals(first.getChecksum(), second.getChecksum());
+        assertEquals(first.getRows(), second.getRows());
+        assertEquals(orders + 2 * 200, count("orders"));
+        assertEquals(orderItems + 2 * first.getRows().get("order_item"), count("order_item"));
+    }
+
+    @Test
+    public void 설정한_규모만큼_생성() {
+        DatasetSpec spec = smallSpec();
+        spec.setSeed(7);
+
+        DatasetReport report = datasetGenerator.generate(spec);
+
+        assertEquals(50L, (long) report.getRows().get("member"));
+        assertEquals(30L, (long) report.getRows().get("item"));
+        assertEquals(2L + 4 + 8, (long) report.getRows().get("category"));
+        assertEquals(200L, (long) report.getRows().get("orders"));
+        long orderItems = report.getRows().get("order_item");
+        assertTrue("주문당 상품 수는 min ~ max 사이", orderItems >= 200 && orderItems <= 200 * 4);
+        assertNotEquals(smallSpecChecksum(), report.getChecksum());
+    }
+
+    private long smallSpecChecksum() {
+        return datasetGenerator.generate(smallSpec()).getChecksum();
+    }
+
+    private DatasetSpec smallSpec() {
+        DatasetSpec spec = new DatasetSpec();
+        spec.setMembers(50);
+        spec.setItems(30);
+        spec.setCategoryRoots(2);
+        spec.setCategoryFanout(2);
+        spec.setCategoryDepth(2);
+        spec.setOrders(200);
+        spec.setMaxItemsPerOrder(4);
+        spec.setBatchSize(16);
+        spec.setCommitSize(64);
+        return spec;
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("select count(*) from " + table, Long.class);
+    }
+}
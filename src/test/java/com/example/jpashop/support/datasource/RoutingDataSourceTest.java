@@ -0,0 +1,98 @@
+package com.example.jpashop.support.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+// H2 메모리 DB 두세 개를 주 DB와 복제본 대신 사용한다.
+public class RoutingDataSourceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ReplicaRouter router;
+
+    @After
+    public void tearDown() {
+        router.close();
+    }
+
+    @Test
+    public void 읽기전용_트랜잭션은_복제본() {
+        DataSource dataSource = routing(replicas("replica-0"), null);
+
+        assertTrue(url(dataSource, true).contains("replica-0"));
+        assertTrue(url(dataSource, false).contains("primary"));
+        assertEquals(1, registry.counter("jpashop.datasource.connections", "pool", "replica-0").count(), 0);
+        assertEquals(1, registry.counter("jpashop.datasource.connections", "pool", ReplicaRouter.PRIMARY).count(), 0);
+    }
+
+    @Test
+    public void 복제본_라운드로빈() {
+        DataSource dataSource = routing(replicas("replica-0", "replica-1"), null);
+
+        String first = url(dataSource, true);
+        String second = url(dataSource, true);
+
+        assertNotEquals(first, second);
+        assertEquals(first, url(dataSource, true));
+    }
+
+    @Test
+    public void 복제_지연이_크면_주DB() {
+        DataSource dataSource = routing(replicas("replica-0"), "select 60000");
+
+        assertTrue(url(dataSource, true).contains("primary"));
+        assertEquals(1, registry.counter("jpashop.datasource.fallbacks").count(), 0);
+        assertEquals(0, registry.get("jpashop.datasource.replica.up").gauge().value(), 0);
+    }
+
+    @Test
+    public void 접속할_수_없는_복제본은_제외() {
+        Map<String, DataSource> replicas = replicas("replica-0");
+        // IFEXISTS=TRUE -> 없는 DB라 접속 실패
+        replicas.put("replica-1", new DriverManagerDataSource("jdbc:h2:mem:missing-" + System.nanoTime() + ";IFEXISTS=TRUE", "sa", ""));
+        DataSource dataSource = routing(replicas, null);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(url(dataSource, true).contains("replica-0"));
+        }
+    }
+
+    private DataSource routing(Map<String, DataSource> replicas, String lagQuery) {
+        router = new ReplicaRouter(h2("primary"), replicas, lagQuery, 1000, registry);
+        router.checkReplicas();
+        return new LazyConnectionDataSourceProxy(new RoutingDataSource(router));
+    }
+
+    private Map<String, DataSource> replicas(String... names) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String name : names) {
+            replicas.put(name, h2(name));
+        }
+        return replicas;
+    }
+
+    private DataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    // 실제 트랜잭션 매니저로 시작해서 커넥션을 얻는 시점이 readOnly 표시 이후인지도 확인한다.
+    private String url(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(readOnly);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return transaction.execute(status -> jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getURL()));
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.jpashop.support.etag;
+
+import com.example.jpashop.modules.item.Book;
+import com.example.jpashop.modules.item.Item;
+import com.example.jpashop.modules.item.ItemService;
+import com.example.jpashop.modules.member.Address;
+import com.example.jpashop.modules.member.Member;
+import com.example.jpashop.modules.member.MemberService;
+import com.example.jpashop.modules.order.OrderService;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 지문은 커밋된 변경만 반영하므로 @Transactional을 붙이지 않는다.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:conditional-get;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+public class ConditionalGetTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired MockMvc mockMvc;
+    @Autowired TransactionTemplate transactionTemplate;
+    @Autowired VersionFingerprint versionFingerprint;
+    @Autowired ItemService itemService;
+    @Autowired MemberService memberService;
+    @Autowired OrderService orderService;
+
+    // 데이터가 그대로면 304, 상품이 수정되면 새 ETag로 200
+    @Test
+    public void 주문조회_조건부_GET() throws Exception {
+        // Given
+        String etag = mockMvc.perform(get("/api/v4/orders"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull("응답에 ETag가 있어야 한다.", etag);
+
+        // When
+        int notModified = mockMvc.perform(get("/api/v4/orders").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse().getStatus();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Item item = em.createQuery("select i from Item i", Item.class).setMaxResults(1).getSingleResult();
+            item.setName(item.getName() + " 개정판");
+        });
+
+        String changedEtag = mockMvc.perform(get("/api/v4/orders").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Then
+        assertEquals("데이터가 그대로면 304로 응답해야 한다.", 304, notModified);
+        assertNotEquals("상품이 수정되면 ETag가 바뀌어야 한다.", etag, changedEtag);
+    }
+
+    // 롤백된 변경은 지문을 바꾸지 않고, 벌크 update(재고 차감)는 같은 트랜잭션에서 커밋되면 바꾼다.
+    @Test
+    public void 커밋된_변경만_지문에_반영() {
+        // Given
+        Member member = new Member();
+        member.setName("지문회원" + System.nanoTime());
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        Long memberId = memberService.join(member);
+        Book book = new Book();
+        book.setName("지문 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        itemService.saveItem(book);
+        String before = versionFingerprint.of(Item.class);
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            em.find(Item.class, book.getId()).setName("롤백할 이름");
+            em.flush();
+            status.setRollbackOnly();
+        });
+        String afterRollback = versionFingerprint.of(Item.class);
+        orderService.order(memberId, book.getId(), 1);
+        String afterOrder = versionFingerprint.of(Item.class);
+
+        // Then
+        assertEquals("롤백된 변경은 지문을 바꾸지 않아야 한다.", before, afterRollback);
+        assertNotEquals("재고 차감(벌크 update)은 지문을 바꿔야 한다.", before, afterOrder);
+    }
+
+    // 다른 인스턴스가 같은 DB에 커밋한 변경도 지문에 반영된다.
+    @Test
+    public void 다른_인스턴스의_변경도_지문에_반영() {
+        // Given
+        versionFingerprint.changed(Member.class);
+        String before = versionFingerprint.of(Member.class);
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> em.createNativeQuery(
+                "update entity_generation set generation = generation + 1 where entity_name = :name")
+                .setParameter("name", Member.class.getName())
+                .executeUpdate());
+        String after = versionFingerprint.of(Member.class);
+
+        // Then
+        assertNotEquals("DB의 세대가 바뀌면 지문도 바뀌어야 한다.", before, after);
+    }
+
+    @Test
+    public void 쿼리스트링마다_다른_ETag() throws Exception {
+        String first = mockMvc.perform(get("/api/v4.1/orders?limit=1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String second = mockMvc.perform(get("/api/v4.1/orders?limit=2"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(first, second);
+    }
+}
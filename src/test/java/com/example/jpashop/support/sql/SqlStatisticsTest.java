@@ -0,0 +1,104 @@
+package com.example.jpashop.support.sql;
+
+import com.example.jpashop.modules.delivery.Delivery;
+import com.example.jpashop.modules.item.Book;
+import com.example.jpashop.modules.member.Address;
+import com.example.jpashop.modules.member.Member;
+import com.example.jpashop.modules.order.Order;
+import com.example.jpashop.modules.order.OrderRepository;
+import com.example.jpashop.modules.orderItem.OrderItem;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+public class SqlStatisticsTest {
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Autowired OrderRepository orderRepository;
+
+    // 주문마다 회원을 지연 로딩하면 같은 SQL이 회원 id만 바뀌어 반복된다.
+    @Test
+    public void N플러스1_감지() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            createOrder("회원" + i);
+        }
+        em.flush();
+        em.clear();
+
+        // When
+        SqlStatistics statistics = SqlStatisticsContext.open("test", 5);
+        try {
+            List<Order> orders = orderRepository.findAll();
+            for (Order order : orders) {
+                order.getMember().getName();
+            }
+        } finally {
+            SqlStatisticsContext.close(statistics);
+        }
+
+        // Then
+        Map<String, SqlStatistics.Repeated> repeated = statistics.getRepeated(5);
+        assertEquals("반복된 SQL은 회원 조회 하나다.", 1, repeated.size());
+
+        SqlStatistics.Repeated memberQuery = repeated.values().iterator().next();
+        assertTrue("회원 수만큼 다른 파라미터로 실행되어야 한다.", memberQuery.getDistinctParameters() >= 5);
+        assertTrue("호출 위치는 지연 로딩을 일으킨 테스트 메서드여야 한다. " + memberQuery.getCallSite(),
+                memberQuery.getCallSite().startsWith(getClass().getName() + ".N플러스1_감지("));
+        assertEquals("주문 1번 + 회원 N번", 1 + memberQuery.getExecutions(), statistics.getStatements());
+        assertTrue(statistics.getRows() >= 5);
+    }
+
+    // 서로 다른 파라미터는 기준까지만 세고, 실행 수는 모두 센다.
+    @Test
+    public void 반복_파라미터는_기준까지만() {
+        SqlStatistics statistics = new SqlStatistics("test", 5);
+        for (int i = 0; i < 1000; i++) {
+            statistics.recordStatement("select * from member where member_id = ?", i, 0);
+        }
+
+        SqlStatistics.Repeated repeated = statistics.getRepeated(5).values().iterator().next();
+        assertEquals(1000, repeated.getExecutions());
+        assertEquals(5, repeated.getDistinctParameters());
+    }
+
+    // 범위가 없으면 기록하지 않는다.
+    @Test
+    public void 범위_밖() {
+        orderRepository.findAll();
+
+        assertNull(SqlStatisticsContext.outermost());
+    }
+
+    private void createOrder(String name) {
+        Member member = new Member();
+        member.setName(name);
+        member.setAddress(new Address("서울", "강가", "123-123"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        em.persist(Order.createOrder(member, delivery, OrderItem.createOrderItem(book, 10000, 1)));
+    }
+}
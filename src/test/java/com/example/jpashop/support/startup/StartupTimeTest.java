@@ -0,0 +1,80 @@
+package com.example.jpashop.support.startup;
+
+import com.example.jpashop.JpashopApplication;
+import org.junit.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+// 시작 시간 회귀 테스트
+// 예산은 시스템 프로퍼티 jpashop.startup.budget-millis로 바꾼다. (CI 장비 성능에 맞춘다)
+// Gradle에서는 ./gradlew test -PstartupBudgetMillis=8000 이 이 프로퍼티로 넘어간다. (build.gradle test 블록)
+// IDE에서 실행할 때는 VM 옵션 -Djpashop.startup.budget-millis=8000 을 준다.
+public class StartupTimeTest {
+
+    private static final long BUDGET_MILLIS = Long.getLong("jpashop.startup.budget-millis", 15000);
+
+    private final String url = "jdbc:h2:mem:startup-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+
+    @Test
+    public void 빠른_시작_예산() throws Exception {
+        // Given : 스키마만 만든다. (fast-startup은 검증만 한다)
+        // 테스트 설정은 임베디드 DB 기본값(create-drop)이라 close할 때 테이블이 지워지므로 create로 지정한다.
+        // 기본 설정에서는 시작 시간을 기록하지 않는다.
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=" + url, "spring.jpa.hibernate.ddl-auto=create",
+                        "jpashop.init-db.mode=none")
+                .run()) {
+            assertTrue(context.getBeansOfType(StartupTimeline.class).isEmpty());
+        }
+
+        // When
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JpashopApplication.class)
+                .profiles("fast-startup")
+                .properties("spring.datasource.url=" + url, "server.port=0")
+                .run()) {
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            // Then
+            StartupTimeline timeline = context.getBean(StartupTimeline.class);
+            StartupReport report = timeline.report(10);
+            assertTrue("시작 시간 " + elapsedMillis + "ms가 예산 " + BUDGET_MILLIS + "ms를 넘었다.\n" + describe(report),
+                    elapsedMillis < BUDGET_MILLIS);
+            assertNotNull(report.getReadyMillis());
+            assertTrue(report.getPhases().stream().anyMatch(phase -> phase.getName().equals("jpa-bootstrap")));
+            assertFalse(report.getBeans().isEmpty());
+
+            // 초기 데이터는 준비 후 백그라운드에서 들어간다.
+            awaitPhase(timeline, "init-db");
+            EntityManager em = context.getBean(EntityManagerFactory.class).createEntityManager();
+            try {
+                assertEquals(1L, em.createQuery("select count(m) from Member m where m.name = 'userA'").getSingleResult());
+            } finally {
+                em.close();
+            }
+        }
+    }
+
+    private void awaitPhase(StartupTimeline timeline, String name) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (timeline.report(0).getPhases().stream().noneMatch(phase -> phase.getName().equals(name))) {
+            assertTrue(name + " 단계가 끝나지 않았다.", System.currentTimeMillis() < deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    private String describe(StartupReport report) {
+        StringBuilder sb = new StringBuilder();
+        report.getPhases().forEach(phase -> sb.append(phase.getName()).append(' ').append(phase.getDurationMillis()).append("ms\n"));
+        report.getBeans().forEach(bean -> sb.append(bean.getName()).append(' ').append(bean.getTotalMillis()).append("ms\n"));
+        return sb.toString();
+    }
+}